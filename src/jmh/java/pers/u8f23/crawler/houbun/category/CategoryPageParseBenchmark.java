@@ -0,0 +1,52 @@
+package pers.u8f23.crawler.houbun.category;
+
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.*;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+import retrofit2.Response;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分类页面两种解析方式的耗时对比。
+ * 每次调用都包装一个新的响应体，两种方式的包装开销相同。
+ *
+ * @author 8f23
+ * @create 2026/10/18-22:40
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class CategoryPageParseBenchmark
+{
+	private static final MediaType HTML = MediaType.get("text/html; charset=UTF-8");
+
+	private byte[] page;
+
+	@Setup
+	public void setup()
+	{
+		page = Fixtures.read(Fixtures.CATEGORY_PAGE);
+	}
+
+	@Benchmark
+	public CategoryPageParsed parseJsoup()
+	{
+		return CategoryPageParsed.parse(response());
+	}
+
+	@Benchmark
+	public CategoryPageParsed parseStreaming()
+	{
+		return CategoryPageParsed.parseStreaming(response());
+	}
+
+	private Response<ResponseBody> response()
+	{
+		return Response.success(ResponseBody.create(page, HTML));
+	}
+}
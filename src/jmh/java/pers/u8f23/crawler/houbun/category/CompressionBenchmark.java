@@ -0,0 +1,104 @@
+package pers.u8f23.crawler.houbun.category;
+
+import org.openjdk.jmh.annotations.*;
+import org.tukaani.xz.LZMA2Options;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以与{@code Main#compressBackupFile}相同的方式复制并压缩备份文件，比较不同缓冲区大小与压缩格式的耗时。
+ * 输入为重复拼接的导出文档样本，吞吐量即{@code inputMegabytes}除以每次调用的耗时。
+ *
+ * @author 8f23
+ * @create 2026/10/18-22:40
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.SingleShotTime)
+@OutputTimeUnit (TimeUnit.MILLISECONDS)
+@Warmup (iterations = 1)
+@Measurement (iterations = 3)
+@Fork (1)
+public class CompressionBenchmark
+{
+	@Param ({"8192", "65536", "1048576"})
+	private int bufferSize;
+	@Param ({"xz", "7z"})
+	private String codec;
+	@Param ("16")
+	private int inputMegabytes;
+
+	private Path input;
+	private Path output;
+
+	@Setup (Level.Trial)
+	public void setup() throws IOException
+	{
+		byte[] document = Fixtures.read(Fixtures.EXPORT_DOCUMENT);
+		input = Files.createTempFile("compression-benchmark", ".xml");
+		output = Files.createTempFile("compression-benchmark", "." + codec);
+		long target = inputMegabytes * 1024L * 1024L;
+		try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(input)))
+		{
+			for (long written = 0; written < target; written += document.length)
+			{
+				os.write(document);
+			}
+		}
+	}
+
+	@TearDown (Level.Trial)
+	public void tearDown() throws IOException
+	{
+		Files.deleteIfExists(input);
+		Files.deleteIfExists(output);
+	}
+
+	@Benchmark
+	public long compress() throws IOException
+	{
+		long inputSize = 0;
+		try (
+			OutputStream archive = openArchive();
+			InputStream is = Files.newInputStream(input)
+		)
+		{
+			byte[] buffer = new byte[bufferSize];
+			while (true)
+			{
+				int i = is.read(buffer);
+				if (i < 0)
+				{
+					break;
+				}
+				archive.write(buffer, 0, i);
+				inputSize += i;
+			}
+		}
+		return inputSize;
+	}
+
+	/**
+	 * 与{@code Main#openBackupArchive}的默认配置一致。
+	 */
+	private OutputStream openArchive() throws IOException
+	{
+		LZMA2Options options = new LZMA2Options();
+		if ("xz".equals(codec))
+		{
+			return new ParallelXzOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(output), bufferSize),
+				options,
+				options.getDictSize() * 3,
+				Runtime.getRuntime().availableProcessors()
+			);
+		}
+		return new SevenZEntryOutputStream(new File(output.toString()), "backup.xml", options);
+	}
+}
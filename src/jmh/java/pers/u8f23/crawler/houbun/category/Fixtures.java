@@ -0,0 +1,40 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * 读取基准测试使用的样本数据。
+ * 样本位于{@code src/jmh/resources/fixtures}，结构与本站的分类页面、{@code prop=categories}接口响应
+ * 以及镜像站的页面导出文档一致。
+ *
+ * @author 8f23
+ * @create 2026/10/18-22:40
+ */
+final class Fixtures
+{
+	static final String CATEGORY_PAGE = "category-page.html";
+	static final String CATEGORIES_RESPONSE = "categories-response.json";
+	static final String EXPORT_DOCUMENT = "export.xml";
+
+	private Fixtures()
+	{
+	}
+
+	static byte[] read(String name)
+	{
+		try (InputStream is = Fixtures.class.getResourceAsStream("/fixtures/" + name))
+		{
+			if (is == null)
+			{
+				throw new IllegalArgumentException("Missing fixture: " + name);
+			}
+			return is.readAllBytes();
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import org.openjdk.jmh.annotations.*;
+import pers.u8f23.crawler.houbun.category.response.ApiBaseResponse;
+import pers.u8f23.crawler.houbun.category.response.CreatorsResponse;
+import pers.u8f23.crawler.houbun.category.response.Page;
+import pers.u8f23.crawler.houbun.category.response.Query;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 作品作者查询结果的反序列化与提取耗时。
+ * 分别测量完整响应的反序列化、两个字段适配器单独的读取、{@link Query#flat}的提取，
+ * 以及{@link CreatorsResponse}直接流式解码出作者名的耗时。
+ *
+ * @author 8f23
+ * @create 2026/10/18-22:40
+ */
+@State (Scope.Benchmark)
+@BenchmarkMode (Mode.AverageTime)
+@OutputTimeUnit (TimeUnit.MICROSECONDS)
+@Warmup (iterations = 3, time = 2)
+@Measurement (iterations = 5, time = 2)
+@Fork (1)
+public class QueryBenchmark
+{
+	private static final Type RESPONSE_TYPE = new TypeToken<ApiBaseResponse<Query>>() {}.getType();
+
+	private final Gson gson = new Gson();
+	private final Page.FieldCategoriesAdapter categoriesAdapter = new Page.FieldCategoriesAdapter();
+	private final Query.FieldNormalizedAdapter normalizedAdapter = new Query.FieldNormalizedAdapter();
+
+	private String response;
+	/** 第一个页面的{@code categories}数组。 */
+	private String categories;
+	private String normalized;
+	private Query query;
+
+	@Setup
+	public void setup()
+	{
+		response = new String(Fixtures.read(Fixtures.CATEGORIES_RESPONSE), StandardCharsets.UTF_8);
+		JsonObject queryJson = JsonParser.parseString(response).getAsJsonObject().getAsJsonObject("query");
+		categories = queryJson.getAsJsonObject("pages")
+			.entrySet()
+			.iterator()
+			.next()
+			.getValue()
+			.getAsJsonObject()
+			.get("categories")
+			.toString();
+		normalized = queryJson.get("normalized").toString();
+		ApiBaseResponse<Query> parsed = gson.fromJson(response, RESPONSE_TYPE);
+		query = parsed.getQuery();
+	}
+
+	@Benchmark
+	public ApiBaseResponse<Query> decodeResponse()
+	{
+		return gson.fromJson(response, RESPONSE_TYPE);
+	}
+
+	@Benchmark
+	public List<String> fieldCategoriesAdapter() throws IOException
+	{
+		return categoriesAdapter.read(new JsonReader(new StringReader(categories)));
+	}
+
+	@Benchmark
+	public Map<String, String> fieldNormalizedAdapter() throws IOException
+	{
+		return normalizedAdapter.read(new JsonReader(new StringReader(normalized)));
+	}
+
+	@Benchmark
+	public Map<String, Set<String>> flat()
+	{
+		return Query.flat(query);
+	}
+
+	@Benchmark
+	public Map<String, Set<String>> decodeAndFlat()
+	{
+		ApiBaseResponse<Query> parsed = gson.fromJson(response, RESPONSE_TYPE);
+		return Query.flat(parsed.getQuery());
+	}
+
+	@Benchmark
+	public CreatorsResponse decodeCreators()
+	{
+		return gson.fromJson(response, CreatorsResponse.class);
+	}
+}
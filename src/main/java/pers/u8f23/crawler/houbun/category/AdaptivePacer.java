@@ -0,0 +1,225 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import pers.u8f23.crawler.houbun.category.config.AdaptivePacingConfig;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应的请求节奏控制。
+ * 此类本身是应用层拦截器，负责重试被限流的请求；{@link #interceptNetwork(Chain)}须在网络拦截器中调用。
+ * 请求速率按照加性增、乘性减（AIMD）的规则调整：响应正常时每秒增加固定的速率，
+ * 遇到429/503、MediaWiki的{@code maxlag}错误或响应过慢时按系数降低速率。
+ * 服务器给出{@code Retry-After}时，所有请求暂停至指定时间；被限流的请求在拦截器内等待后重试。
+ * 速率通过共享的{@link RateLimiter}生效，每次请求前另加随机抖动，避免多个线程同时发出请求。
+ *
+ * @author 8f23
+ * @create 2026/10/18-20:40
+ */
+@Slf4j
+public class AdaptivePacer implements Interceptor
+{
+	/** 没有{@code Retry-After}时，被限流后的最短暂停时间。 */
+	private static final long DEFAULT_RETRY_AFTER_MILLIS = 5000;
+	/** 两次降低速率的最短间隔，避免同一波限流响应多次降速。 */
+	private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	private final AdaptivePacingConfig config;
+	private final RateLimiter limiter;
+	private long blockedUntilMillis;
+	private long lastDecreaseNanos;
+	private long lastIncreaseNanos = System.nanoTime();
+	private long throttledCount;
+	private long slowCount;
+
+	public AdaptivePacer(AdaptivePacingConfig config, RateLimiter limiter)
+	{
+		this.config = config;
+		this.limiter = limiter;
+		limiter.setRate(clamp(config.getInitialRate()));
+	}
+
+	/**
+	 * 应用层拦截：附加{@code maxlag}参数，被限流的请求等待后重试。
+	 */
+	@Override
+	public Response intercept(Chain chain) throws IOException
+	{
+		Request request = withMaxlag(chain.request());
+		int attempt = 0;
+		while (true)
+		{
+			Response response = chain.proceed(request);
+			if (!isThrottled(response))
+			{
+				return response;
+			}
+			if (++attempt > config.getMaxThrottleRetries())
+			{
+				// maxlag错误的状态码为200，改为503以便调用方按失败处理。
+				return response.code() == 200
+					? response.newBuilder().code(503).message("maxlag").build()
+					: response;
+			}
+			// 下次请求前会在网络层等待至Retry-After指定的时间。
+			response.close();
+		}
+	}
+
+	/**
+	 * 网络层拦截：控制请求节奏，并根据响应调整速率。命中缓存的请求不经过此处。
+	 */
+	public Response interceptNetwork(Chain chain) throws IOException
+	{
+		pace();
+		long start = System.nanoTime();
+		Response response = chain.proceed(chain.request());
+		long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+		if (isThrottled(response))
+		{
+			onThrottled(response, parseRetryAfter(response.header("Retry-After")));
+		}
+		else
+		{
+			onHealthy(latencyMillis);
+		}
+		return response;
+	}
+
+	/**
+	 * @return 当前请求速率与限流统计。
+	 */
+	public synchronized String summary()
+	{
+		return String.format("rate %.2f/s, throttled %d, slow %d", limiter.getRate(), throttledCount, slowCount);
+	}
+
+	private void pace() throws InterruptedIOException
+	{
+		try
+		{
+			long blockedMillis;
+			synchronized (this)
+			{
+				blockedMillis = blockedUntilMillis - System.currentTimeMillis();
+			}
+			if (blockedMillis > 0)
+			{
+				Thread.sleep(blockedMillis);
+			}
+			limiter.acquire();
+			double rate = limiter.getRate();
+			if (config.getJitter() > 0 && rate > 0)
+			{
+				long jitterMillis = (long) (ThreadLocalRandom.current().nextDouble(config.getJitter())
+				                            * 1000 / rate);
+				Thread.sleep(jitterMillis);
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while pacing requests.");
+		}
+	}
+
+	private Request withMaxlag(Request request)
+	{
+		HttpUrl url = request.url();
+		if (config.getMaxlag() <= 0
+		    || !url.encodedPath().endsWith("api.php")
+		    || url.queryParameter("maxlag") != null)
+		{
+			return request;
+		}
+		return request.newBuilder()
+			.url(url.newBuilder().addQueryParameter("maxlag", String.valueOf(config.getMaxlag())).build())
+			.build();
+	}
+
+	private static boolean isThrottled(Response response)
+	{
+		return response.code() == 429
+		       || response.code() == 503
+		       || "maxlag".equals(response.header("MediaWiki-API-Error"));
+	}
+
+	private synchronized void onHealthy(long latencyMillis)
+	{
+		long now = System.nanoTime();
+		if (config.getLatencyThreshold() > 0 && latencyMillis > config.getLatencyThreshold())
+		{
+			slowCount++;
+			decrease(now);
+			return;
+		}
+		// 加性增：按距上次增加的时间折算，速率每秒增加固定值。
+		double seconds = (now - lastIncreaseNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+		lastIncreaseNanos = now;
+		limiter.setRate(clamp(limiter.getRate() + config.getAdditiveIncrease() * Math.min(seconds, 1)));
+	}
+
+	private synchronized void onThrottled(Response response, long retryAfterMillis)
+	{
+		throttledCount++;
+		long pauseMillis = retryAfterMillis > 0 ? retryAfterMillis : DEFAULT_RETRY_AFTER_MILLIS;
+		blockedUntilMillis = Math.max(blockedUntilMillis, System.currentTimeMillis() + pauseMillis);
+		decrease(System.nanoTime());
+		log.warn("Request throttled with status [{}]. Pause [{}] ms and slow down to [{}] requests/s.",
+			response.code(), pauseMillis, String.format("%.2f", limiter.getRate()));
+	}
+
+	private void decrease(long now)
+	{
+		if (now - lastDecreaseNanos < DECREASE_COOLDOWN_NANOS)
+		{
+			return;
+		}
+		lastDecreaseNanos = now;
+		lastIncreaseNanos = now;
+		limiter.setRate(clamp(limiter.getRate() * config.getDecreaseFactor()));
+	}
+
+	private double clamp(double rate)
+	{
+		return Math.max(config.getMinRate(), Math.min(config.getMaxRate(), rate));
+	}
+
+	/**
+	 * 解析{@code Retry-After}，支持秒数与HTTP日期两种格式。
+	 *
+	 * @return 需要等待的毫秒数，无法解析时返回0。
+	 */
+	static long parseRetryAfter(String value)
+	{
+		if (value == null || value.isEmpty())
+		{
+			return 0;
+		}
+		try
+		{
+			return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+		}
+		catch (NumberFormatException ignored)
+		{
+		}
+		try
+		{
+			ZonedDateTime date = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+			return Math.max(0, date.toInstant().toEpochMilli() - System.currentTimeMillis());
+		}
+		catch (Exception e)
+		{
+			return 0;
+		}
+	}
+}
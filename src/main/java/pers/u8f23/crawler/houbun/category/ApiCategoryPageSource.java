@@ -0,0 +1,119 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Single;
+import pers.u8f23.crawler.houbun.category.response.ApiBaseResponse;
+import pers.u8f23.crawler.houbun.category.response.CategoryMembersQuery;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+import retrofit2.Response;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 基于{@code list=categorymembers}接口的数据来源。
+ * 分页路径形如{@code Category:xxx#cmcontinue=...&continue=...}，
+ * 页面标题中不允许出现{@code #}，因此不会与分类名混淆。
+ *
+ * @author 8f23
+ * @create 2026/10/18-11:31
+ */
+public class ApiCategoryPageSource implements CategoryPageSource
+{
+	private static final int CATEGORY_NAMESPACE = 14;
+	private static final char CONTINUE_SEPARATOR = '#';
+
+	private final HomeSiteService service;
+
+	public ApiCategoryPageSource(HomeSiteService service)
+	{
+		this.service = service;
+	}
+
+	@Override
+	public Single<CategoryPageParsed> request(String path)
+	{
+		int separator = path.indexOf(CONTINUE_SEPARATOR);
+		String category = separator < 0 ? path : path.substring(0, separator);
+		Map<String, String> continueParams = separator < 0
+			? Collections.emptyMap()
+			: decodeContinueParams(path.substring(separator + 1));
+		return service
+			.getCategoryMembers(category, continueParams)
+			.map(raw -> parse(raw, category));
+	}
+
+	private static CategoryPageParsed parse(
+		Response<ApiBaseResponse<CategoryMembersQuery>> rawResponse,
+		String category)
+	{
+		if (rawResponse == null)
+		{
+			throw new RuntimeException();
+		}
+		if (rawResponse.code() == 404)
+		{
+			return CategoryPageParsed.EMPTY_RESULT;
+		}
+		ApiBaseResponse<CategoryMembersQuery> body = rawResponse.body();
+		if (body == null)
+		{
+			throw new RuntimeException();
+		}
+		Set<String> subCategories = new LinkedHashSet<>();
+		Set<String> subPages = new LinkedHashSet<>();
+		if (body.getQuery() != null && body.getQuery().getCategoryMembers() != null)
+		{
+			for (CategoryMembersQuery.Member member : body.getQuery().getCategoryMembers())
+			{
+				if (member.getTitle() == null || member.getTitle().isEmpty())
+				{
+					continue;
+				}
+				if (member.getNs() == CATEGORY_NAMESPACE)
+				{
+					subCategories.add(member.getTitle());
+				}
+				else
+				{
+					subPages.add(member.getTitle());
+				}
+			}
+		}
+		Set<String> nextPagePaths = Collections.emptySet();
+		Map<String, String> continueParams = body.getContinueParams();
+		if (continueParams != null && !continueParams.isEmpty())
+		{
+			nextPagePaths = Collections.singleton(
+				category + CONTINUE_SEPARATOR + encodeContinueParams(continueParams));
+		}
+		return CategoryPageParsed.of(nextPagePaths, subCategories, subPages);
+	}
+
+	private static String encodeContinueParams(Map<String, String> params)
+	{
+		StringJoiner joiner = new StringJoiner("&");
+		params.forEach((key, value) -> joiner.add(
+			URLEncoder.encode(key, StandardCharsets.UTF_8) + "="
+			+ URLEncoder.encode(value, StandardCharsets.UTF_8)));
+		return joiner.toString();
+	}
+
+	private static Map<String, String> decodeContinueParams(String encoded)
+	{
+		Map<String, String> params = new LinkedHashMap<>();
+		for (String pair : encoded.split("&"))
+		{
+			int eq = pair.indexOf('=');
+			if (eq <= 0)
+			{
+				continue;
+			}
+			params.put(
+				URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+				URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+		}
+		return params;
+	}
+}
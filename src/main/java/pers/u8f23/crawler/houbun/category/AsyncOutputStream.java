@@ -0,0 +1,184 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 异步输出流。
+ * 写入的数据按块放入有界队列，由独立的线程写入下游输出流。
+ * 队列已满时写入方阻塞，因此占用的内存不超过{@code capacity * blockSize}字节。
+ * 下游写入失败后，后续的写入与关闭都会抛出该异常。
+ *
+ * @author 8f23
+ * @create 2026/10/18-16:20
+ */
+public class AsyncOutputStream extends OutputStream
+{
+	private static final byte[] END_OF_STREAM = new byte[0];
+
+	private final OutputStream delegate;
+	private final BlockingQueue<byte[]> queue;
+	private final int blockSize;
+	private final Thread worker;
+	private byte[] block;
+	private int blockLength;
+	private volatile Throwable failure;
+	private boolean closed;
+
+	/**
+	 * @param delegate  下游输出流，由工作线程写入，随此流一同关闭。
+	 * @param capacity  队列中最多暂存的块数。
+	 * @param blockSize 每块的字节数。
+	 */
+	public AsyncOutputStream(OutputStream delegate, int capacity, int blockSize, String threadName)
+	{
+		this.delegate = delegate;
+		this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+		this.blockSize = Math.max(1024, blockSize);
+		this.block = new byte[this.blockSize];
+		this.worker = new Thread(this::drain, threadName);
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	private void drain()
+	{
+		try
+		{
+			while (true)
+			{
+				byte[] data = queue.take();
+				if (data == END_OF_STREAM)
+				{
+					return;
+				}
+				delegate.write(data);
+			}
+		}
+		catch (Throwable th)
+		{
+			failure = th;
+			// 清空队列，避免写入方阻塞。
+			queue.clear();
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		ensureOpen();
+		block[blockLength++] = (byte) b;
+		if (blockLength == blockSize)
+		{
+			flushBlock();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		ensureOpen();
+		while (len > 0)
+		{
+			int count = Math.min(len, blockSize - blockLength);
+			System.arraycopy(b, off, block, blockLength, count);
+			blockLength += count;
+			off += count;
+			len -= count;
+			if (blockLength == blockSize)
+			{
+				flushBlock();
+			}
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		try
+		{
+			if (blockLength > 0 && failure == null)
+			{
+				byte[] data = new byte[blockLength];
+				System.arraycopy(block, 0, data, 0, blockLength);
+				put(data);
+			}
+			if (failure == null)
+			{
+				put(END_OF_STREAM);
+			}
+			worker.join();
+		}
+		catch (InterruptedException e)
+		{
+			worker.interrupt();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing async stream.");
+		}
+		finally
+		{
+			delegate.close();
+		}
+		checkFailure();
+	}
+
+	private void flushBlock() throws IOException
+	{
+		byte[] data = block;
+		block = new byte[blockSize];
+		blockLength = 0;
+		try
+		{
+			put(data);
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing async stream.");
+		}
+	}
+
+	private void put(byte[] data) throws InterruptedException, IOException
+	{
+		while (!worker.isAlive() || !queue.offer(data, 100, TimeUnit.MILLISECONDS))
+		{
+			checkFailure();
+			if (!worker.isAlive())
+			{
+				throw new IOException("Async stream worker has stopped.");
+			}
+		}
+	}
+
+	private void ensureOpen() throws IOException
+	{
+		if (closed)
+		{
+			throw new IOException("Stream closed.");
+		}
+		checkFailure();
+	}
+
+	private void checkFailure() throws IOException
+	{
+		Throwable th = failure;
+		if (th == null)
+		{
+			return;
+		}
+		if (th instanceof IOException)
+		{
+			throw (IOException) th;
+		}
+		throw new IOException("Async stream worker failed.", th);
+	}
+}
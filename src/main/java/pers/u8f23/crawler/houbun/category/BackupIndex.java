@@ -0,0 +1,130 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.tukaani.xz.SingleXZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分块xz备份文件的标题索引。
+ * 索引文件位于压缩文件旁，记录了各压缩块的位置，以及各页面所在的块与其在块内的偏移量、长度。
+ * 读取单个页面时只需解压其所在的块。
+ *
+ * @author 8f23
+ * @create 2026/10/18-17:40
+ */
+@Getter
+@NoArgsConstructor
+public class BackupIndex
+{
+	public static final String INDEX_SUFFIX = ".index.json";
+
+	private static final Gson GSON = new Gson();
+
+	private List<ParallelXzOutputStream.Block> blocks;
+	/** key = 页面标题; value = 页面位置。 */
+	private Map<String, PageLocation> pages;
+
+	BackupIndex(List<ParallelXzOutputStream.Block> blocks, Map<String, PageLocation> pages)
+	{
+		this.blocks = blocks;
+		this.pages = pages;
+	}
+
+	public static String indexPathOf(String archivePath)
+	{
+		return archivePath + INDEX_SUFFIX;
+	}
+
+	/**
+	 * 读取压缩文件旁的索引。
+	 */
+	public static BackupIndex load(String archivePath) throws IOException
+	{
+		try (Reader reader = Files.newBufferedReader(
+			Paths.get(indexPathOf(archivePath)), StandardCharsets.UTF_8))
+		{
+			return GSON.fromJson(reader, BackupIndex.class);
+		}
+	}
+
+	void save(String archivePath) throws IOException
+	{
+		Path path = Paths.get(indexPathOf(archivePath));
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8))
+		{
+			GSON.toJson(this, writer);
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * 读取单个页面的{@code <page>}元素。
+	 *
+	 * @return 页面内容，索引中没有该页面时返回{@code null}。
+	 */
+	public String readPage(String archivePath, String title) throws IOException
+	{
+		PageLocation location = pages.get(title);
+		if (location == null)
+		{
+			return null;
+		}
+		ParallelXzOutputStream.Block block = blocks.get(location.block);
+		try (SeekableByteChannel channel = Files.newByteChannel(Paths.get(archivePath)))
+		{
+			channel.position(block.getCompressedOffset());
+			// 每块都是独立的xz流，只解压这一个流。
+			InputStream in = new SingleXZInputStream(
+				new BufferedInputStream(Channels.newInputStream(channel)));
+			long skipped = 0;
+			while (skipped < location.offset)
+			{
+				long n = in.skip(location.offset - skipped);
+				if (n <= 0)
+				{
+					throw new IOException("Unexpected end of block " + location.block);
+				}
+				skipped += n;
+			}
+			byte[] data = in.readNBytes(location.length);
+			if (data.length < location.length)
+			{
+				throw new IOException("Unexpected end of block " + location.block);
+			}
+			return new String(data, StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * 单个页面的位置。
+	 */
+	@Getter
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class PageLocation
+	{
+		/** 所在块的序号。 */
+		private int block;
+		/** 在块内未压缩数据中的偏移量。 */
+		private long offset;
+		private int length;
+	}
+}
@@ -0,0 +1,50 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 通过标题索引读取分块xz备份文件中的单个页面。
+ * <p>
+ * 用法：{@code BackupLookup <压缩文件> [标题...]}，不指定标题时列出全部标题。
+ *
+ * @author 8f23
+ * @create 2026/10/18-18:05
+ */
+public class BackupLookup
+{
+	public static void main(String[] args) throws IOException
+	{
+		PrintStream out = new PrintStream(System.out, true, StandardCharsets.UTF_8);
+		if (args.length < 1)
+		{
+			System.err.println("Usage: BackupLookup <archive> [title...]");
+			System.exit(2);
+			return;
+		}
+		String archivePath = args[0];
+		BackupIndex index = BackupIndex.load(archivePath);
+		if (args.length == 1)
+		{
+			index.getPages().keySet().forEach(out::println);
+			return;
+		}
+		int missing = 0;
+		for (int i = 1; i < args.length; i++)
+		{
+			String page = index.readPage(archivePath, args[i]);
+			if (page == null)
+			{
+				System.err.println("Page not found: " + args[i]);
+				missing++;
+				continue;
+			}
+			out.println(page);
+		}
+		if (missing > 0)
+		{
+			System.exit(1);
+		}
+	}
+}
@@ -0,0 +1,530 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 按内容寻址的去重备份仓库。
+ * 导出文档被切分为文档头与各个{@code <page>}元素，每段以其SHA-256摘要为键，压缩后追加至包文件；
+ * 已存在的摘要不会重复写入，因此仓库的增长只与每次的变化量有关。
+ * 每次备份生成一份快照清单，按顺序记录文档头与各页面的摘要，依据清单即可还原完整的导出文档。
+ * <p>
+ * 目录结构：
+ * <ul>
+ *     <li>{@code packs/pack-N.pack}：依次存放的压缩数据段；</li>
+ *     <li>{@code index.tsv}：只追加的索引，每行为{@code 摘要 包序号 偏移量 长度}；</li>
+ *     <li>{@code snapshots/*.json}：快照清单。</li>
+ * </ul>
+ * 写入顺序为数据段、索引、清单，中途退出时最多在包文件末尾残留未被引用的数据。
+ *
+ * @author 8f23
+ * @create 2026/10/18-18:45
+ */
+@Slf4j
+public class BackupRepository
+{
+	public static final long DEFAULT_PACK_SIZE = 256L * 1024 * 1024;
+
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+	private static final String PACKS_DIR = "packs";
+	private static final String SNAPSHOTS_DIR = "snapshots";
+	private static final String INDEX_FILE = "index.tsv";
+	private static final String SNAPSHOT_SUFFIX = ".json";
+	private static final byte[] PAGE_SEPARATOR = "\n  ".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] DOCUMENT_END = "\n</mediawiki>\n".getBytes(StandardCharsets.UTF_8);
+	private static final String DOCUMENT_END_TAG = "</mediawiki>";
+
+	private final Path directory;
+	private final long packSize;
+	/** key = 摘要; value = 数据段位置。 */
+	private final Map<String, BlobLocation> index = new HashMap<>();
+	private int packNumber;
+
+	private BackupRepository(Path directory, long packSize)
+	{
+		this.directory = directory;
+		this.packSize = packSize > 0 ? packSize : DEFAULT_PACK_SIZE;
+	}
+
+	/**
+	 * 打开仓库，目录不存在时创建。
+	 */
+	public static BackupRepository open(String directory, long packSize) throws IOException
+	{
+		BackupRepository repository = new BackupRepository(Paths.get(directory), packSize);
+		Files.createDirectories(repository.directory.resolve(PACKS_DIR));
+		Files.createDirectories(repository.directory.resolve(SNAPSHOTS_DIR));
+		repository.loadIndex();
+		return repository;
+	}
+
+	private void loadIndex() throws IOException
+	{
+		Path path = directory.resolve(INDEX_FILE);
+		if (!Files.isRegularFile(path))
+		{
+			return;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				String[] fields = line.split("\t");
+				if (fields.length != 4)
+				{
+					// 中途退出时残留的不完整行。
+					continue;
+				}
+				BlobLocation location = new BlobLocation(
+					Integer.parseInt(fields[1]),
+					Long.parseLong(fields[2]),
+					Integer.parseInt(fields[3])
+				);
+				index.put(fields[0], location);
+				packNumber = Math.max(packNumber, location.pack);
+			}
+		}
+		log.info("Loaded [{}] blobs from backup repository \"{}\".", index.size(), directory);
+	}
+
+	/**
+	 * 开始写入一份快照。写入的数据为完整的导出文档，关闭时若文档完整则写入快照清单。
+	 *
+	 * @param carriedFromLatest 为{@code true}时，本次未出现的页面从最近一份快照中继承，用于增量导出。
+	 * @param removedPages      继承时需要排除的页面。
+	 */
+	public SnapshotWriter openSnapshot(boolean carriedFromLatest, Collection<String> removedPages)
+		throws IOException
+	{
+		return new SnapshotWriter(
+			carriedFromLatest ? latestSnapshot() : null,
+			removedPages == null ? Collections.emptySet() : new HashSet<>(removedPages)
+		);
+	}
+
+	/**
+	 * @return 全部快照名称，按时间排序。
+	 */
+	public List<String> listSnapshots() throws IOException
+	{
+		try (Stream<Path> files = Files.list(directory.resolve(SNAPSHOTS_DIR)))
+		{
+			return files
+				.map(path -> path.getFileName().toString())
+				.filter(name -> name.endsWith(SNAPSHOT_SUFFIX))
+				.map(name -> name.substring(0, name.length() - SNAPSHOT_SUFFIX.length()))
+				.sorted()
+				.collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * 还原快照对应的导出文档。
+	 */
+	public void restore(String snapshotName, OutputStream out) throws IOException
+	{
+		Snapshot snapshot = readSnapshot(snapshotName);
+		out.write(readBlob(snapshot.header));
+		boolean first = true;
+		for (SnapshotPage page : snapshot.pages)
+		{
+			if (!first)
+			{
+				out.write(PAGE_SEPARATOR);
+			}
+			first = false;
+			out.write(readBlob(page.hash));
+		}
+		out.write(DOCUMENT_END);
+	}
+
+	private Snapshot latestSnapshot() throws IOException
+	{
+		List<String> snapshots = listSnapshots();
+		return snapshots.isEmpty() ? null : readSnapshot(snapshots.get(snapshots.size() - 1));
+	}
+
+	private Snapshot readSnapshot(String name) throws IOException
+	{
+		try (Reader reader = Files.newBufferedReader(
+			directory.resolve(SNAPSHOTS_DIR).resolve(name + SNAPSHOT_SUFFIX), StandardCharsets.UTF_8))
+		{
+			return GSON.fromJson(reader, Snapshot.class);
+		}
+	}
+
+	private byte[] readBlob(String hash) throws IOException
+	{
+		BlobLocation location = index.get(hash);
+		if (location == null)
+		{
+			throw new IOException("Missing blob " + hash);
+		}
+		byte[] compressed = new byte[location.length];
+		try (RandomAccessFile file = new RandomAccessFile(packPath(location.pack).toFile(), "r"))
+		{
+			file.seek(location.offset);
+			file.readFully(compressed);
+		}
+		Inflater inflater = new Inflater();
+		try
+		{
+			inflater.setInput(compressed);
+			ByteArrayOutputStream result = new ByteArrayOutputStream(compressed.length * 4);
+			byte[] buffer = new byte[8192];
+			while (!inflater.finished())
+			{
+				int n = inflater.inflate(buffer);
+				if (n == 0 && inflater.needsInput())
+				{
+					throw new IOException("Truncated blob " + hash);
+				}
+				result.write(buffer, 0, n);
+			}
+			return result.toByteArray();
+		}
+		catch (DataFormatException e)
+		{
+			throw new IOException("Corrupted blob " + hash, e);
+		}
+		finally
+		{
+			inflater.end();
+		}
+	}
+
+	private Path packPath(int pack)
+	{
+		return directory.resolve(PACKS_DIR).resolve("pack-" + pack + ".pack");
+	}
+
+	private static String sha256(byte[] data, int length)
+	{
+		try
+		{
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(data, 0, length);
+			StringBuilder sb = new StringBuilder(64);
+			for (byte b : digest.digest())
+			{
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static byte[] deflate(byte[] data, int length)
+	{
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+		try
+		{
+			deflater.setInput(data, 0, length);
+			deflater.finish();
+			ByteArrayOutputStream result = new ByteArrayOutputStream(length / 3 + 64);
+			byte[] buffer = new byte[8192];
+			while (!deflater.finished())
+			{
+				result.write(buffer, 0, deflater.deflate(buffer));
+			}
+			return result.toByteArray();
+		}
+		finally
+		{
+			deflater.end();
+		}
+	}
+
+	/**
+	 * 快照写入流。
+	 * 写入的数据在内存中只保留当前页面，页面结束时即计算摘要并写入包文件。
+	 */
+	public class SnapshotWriter extends OutputStream
+	{
+		private final Snapshot base;
+		private final Set<String> removedPages;
+		private final Snapshot snapshot = new Snapshot();
+		private final ExportPageScanner scanner;
+		private final Map<String, String> indexAppends = new LinkedHashMap<>();
+		/** 尚未归入页面的数据，起始于{@link #pendingStart}。 */
+		private byte[] pending = new byte[1 << 16];
+		private int pendingLength;
+		private long pendingStart;
+		private FileOutputStream packFile;
+		private OutputStream packStream;
+		private long packOffset;
+		private IOException failure;
+		private boolean closed;
+		@Getter
+		private int storedBlobs;
+		@Getter
+		private int reusedBlobs;
+		@Getter
+		private long storedBytes;
+
+		private SnapshotWriter(Snapshot base, Set<String> removedPages)
+		{
+			this.base = base;
+			this.removedPages = removedPages;
+			this.snapshot.pages = new ArrayList<>();
+			this.scanner = new ExportPageScanner(new ExportPageScanner.Listener()
+			{
+				@Override
+				public void onPageStart(long start)
+				{
+					if (snapshot.header == null)
+					{
+						snapshot.header = storeQuietly(pending, (int) (start - pendingStart));
+					}
+					// 丢弃页面之间的空白。
+					consume(start);
+				}
+
+				@Override
+				public void onPageEnd(String title, long start, long end)
+				{
+					SnapshotPage page = new SnapshotPage();
+					page.title = title;
+					page.hash = storeQuietly(pending, (int) (end - pendingStart));
+					snapshot.pages.add(page);
+					consume(end);
+				}
+			});
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			checkFailure();
+			if (pendingLength + len > pending.length)
+			{
+				pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + len));
+			}
+			System.arraycopy(b, off, pending, pendingLength, len);
+			pendingLength += len;
+			for (int i = off; i < off + len; i++)
+			{
+				scanner.scan(b[i]);
+			}
+			checkFailure();
+		}
+
+		/**
+		 * 丢弃{@code position}之前的数据。
+		 */
+		private void consume(long position)
+		{
+			int count = (int) (position - pendingStart);
+			System.arraycopy(pending, count, pending, 0, pendingLength - count);
+			pendingLength -= count;
+			pendingStart = position;
+		}
+
+		private String storeQuietly(byte[] data, int length)
+		{
+			try
+			{
+				return store(data, length);
+			}
+			catch (IOException e)
+			{
+				failure = e;
+				return null;
+			}
+		}
+
+		private String store(byte[] data, int length) throws IOException
+		{
+			String hash = sha256(data, length);
+			if (index.containsKey(hash) || indexAppends.containsKey(hash))
+			{
+				reusedBlobs++;
+				return hash;
+			}
+			byte[] compressed = deflate(data, length);
+			if (packStream == null || packOffset + compressed.length > packSize && packOffset > 0)
+			{
+				openPack();
+			}
+			packStream.write(compressed);
+			BlobLocation location = new BlobLocation(packNumber, packOffset, compressed.length);
+			packOffset += compressed.length;
+			index.put(hash, location);
+			indexAppends.put(hash, hash + "\t" + location.pack + "\t" + location.offset + "\t" + location.length);
+			storedBlobs++;
+			storedBytes += compressed.length;
+			return hash;
+		}
+
+		private void openPack() throws IOException
+		{
+			closePack();
+			Path path = packPath(packNumber);
+			long size = Files.isRegularFile(path) ? Files.size(path) : 0;
+			if (size >= packSize)
+			{
+				packNumber++;
+				path = packPath(packNumber);
+				size = Files.isRegularFile(path) ? Files.size(path) : 0;
+			}
+			packFile = new FileOutputStream(path.toFile(), true);
+			packStream = new BufferedOutputStream(packFile, 1 << 16);
+			packOffset = size;
+		}
+
+		private void closePack() throws IOException
+		{
+			if (packStream != null)
+			{
+				packStream.flush();
+				packFile.getFD().sync();
+				packStream.close();
+				packStream = null;
+				packFile = null;
+			}
+		}
+
+		private void checkFailure() throws IOException
+		{
+			if (failure != null)
+			{
+				throw failure;
+			}
+		}
+
+		/**
+		 * 关闭写入流。文档完整时写入索引与快照清单，否则放弃本次快照。
+		 */
+		@Override
+		public void close() throws IOException
+		{
+			if (closed)
+			{
+				return;
+			}
+			closed = true;
+			closePack();
+			// 新写入的数据段总是先于索引落盘。
+			appendIndex();
+			checkFailure();
+			String tail = new String(pending, 0, pendingLength, StandardCharsets.UTF_8);
+			if (snapshot.header == null || !tail.contains(DOCUMENT_END_TAG))
+			{
+				log.warn("Incomplete export document. Snapshot is discarded.");
+				return;
+			}
+			if (base != null)
+			{
+				carryOver();
+			}
+			snapshot.timestamp = System.currentTimeMillis();
+			String name = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date(snapshot.timestamp));
+			Path path = directory.resolve(SNAPSHOTS_DIR).resolve(name + SNAPSHOT_SUFFIX);
+			Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+			try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8))
+			{
+				GSON.toJson(snapshot, writer);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log.info("Repository snapshot \"{}\" written: [{}] pages, [{}] new blobs ([{}] bytes), "
+			         + "[{}] reused blobs.",
+				name, snapshot.pages.size(), storedBlobs, storedBytes, reusedBlobs);
+		}
+
+		/**
+		 * 从上一份快照中继承本次未导出的页面，并按标题排序。
+		 * 爬取得到的页面名以下划线分隔，导出文档中则以空格分隔，比较前统一规范化。
+		 */
+		private void carryOver()
+		{
+			Set<String> exported = snapshot.pages.stream()
+				.map(page -> ExportPageScanner.normalizeTitle(page.title))
+				.collect(Collectors.toSet());
+			Set<String> removed = removedPages.stream()
+				.map(ExportPageScanner::normalizeTitle)
+				.collect(Collectors.toSet());
+			for (SnapshotPage page : base.pages)
+			{
+				String title = ExportPageScanner.normalizeTitle(page.title);
+				if (!exported.contains(title) && !removed.contains(title))
+				{
+					snapshot.pages.add(page);
+				}
+			}
+			snapshot.pages.sort(Comparator.comparing(page -> page.title));
+		}
+
+		private void appendIndex() throws IOException
+		{
+			if (indexAppends.isEmpty())
+			{
+				return;
+			}
+			try (FileOutputStream fos = new FileOutputStream(directory.resolve(INDEX_FILE).toFile(), true);
+			     Writer writer = new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8)))
+			{
+				for (String line : indexAppends.values())
+				{
+					writer.write(line);
+					writer.write('\n');
+				}
+				writer.flush();
+				fos.getFD().sync();
+			}
+			indexAppends.clear();
+		}
+	}
+
+	private static class BlobLocation
+	{
+		private final int pack;
+		private final long offset;
+		private final int length;
+
+		private BlobLocation(int pack, long offset, int length)
+		{
+			this.pack = pack;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+	private static class Snapshot
+	{
+		private long timestamp;
+		/** 文档头（含{@code siteinfo}）的摘要。 */
+		private String header;
+		private List<SnapshotPage> pages;
+	}
+
+	private static class SnapshotPage
+	{
+		private String title;
+		private String hash;
+	}
+}
@@ -0,0 +1,342 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 持久化的分类图缓存。
+ * 以请求路径为键保存各分类页面（含分页路径）的解析结果及其请求时间，下次执行时在有效期内直接复用，不发起请求。
+ * 遍历前通过{@code prop=categoryinfo}批量比对各分类的成员数签名，签名变化的分类及其全部分页路径立即失效；
+ * 成员数不变但成员被替换的情况无法由签名发现，只能等待有效期结束后刷新。
+ * <p>
+ * 文件为gzip压缩的二进制格式：所有字符串只写入一次字符串表，各节点以字符串表中的序号引用路径与成员。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:50
+ */
+@Slf4j
+public class CategoryGraphCache
+{
+	private static final int MAGIC = 0x48424347;
+	private static final int VERSION = 1;
+	private static final String CATEGORY_PREFIX = "Category:";
+	private static final String HTML_PAGING_PREFIX = "/index.php?title=";
+	private static final char API_PAGING_SEPARATOR = '#';
+
+	private final Path path;
+	private final long ttl;
+	private final Map<String, Node> nodes = new ConcurrentHashMap<>();
+	/** key = 分类名; value = 成员数签名。 */
+	private final Map<String, String> signatures = new ConcurrentHashMap<>();
+	/** 本次执行中读取或写入过的路径。 */
+	private final Set<String> touched = ConcurrentHashMap.newKeySet();
+	private final AtomicLong reused = new AtomicLong();
+	private final AtomicLong refreshed = new AtomicLong();
+	private int invalidated;
+
+	private CategoryGraphCache(Path path, long ttl)
+	{
+		this.path = path;
+		this.ttl = ttl;
+	}
+
+	/**
+	 * 读取缓存文件。文件不存在或无法读取时，返回空的缓存。
+	 *
+	 * @param ttl 节点的有效期，以毫秒计。
+	 */
+	public static CategoryGraphCache load(String filePath, long ttl)
+	{
+		CategoryGraphCache cache = new CategoryGraphCache(Paths.get(filePath), ttl);
+		if (!Files.isRegularFile(cache.path))
+		{
+			return cache;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+			new GZIPInputStream(Files.newInputStream(cache.path)))))
+		{
+			if (in.readInt() != MAGIC || in.readInt() != VERSION)
+			{
+				log.warn("Unsupported category graph file \"{}\". Start with an empty graph.", filePath);
+				return cache;
+			}
+			String[] strings = new String[in.readInt()];
+			for (int i = 0; i < strings.length; i++)
+			{
+				strings[i] = in.readUTF();
+			}
+			int nodeCount = in.readInt();
+			for (int i = 0; i < nodeCount; i++)
+			{
+				String nodePath = strings[in.readInt()];
+				long fetchedAt = in.readLong();
+				Set<String> nextPagePaths = readStrings(in, strings);
+				Set<String> subCategories = readStrings(in, strings);
+				Set<String> subPages = readStrings(in, strings);
+				cache.nodes.put(nodePath, new Node(
+					fetchedAt,
+					CategoryPageParsed.of(nextPagePaths, subCategories, subPages)
+				));
+			}
+			int signatureCount = in.readInt();
+			for (int i = 0; i < signatureCount; i++)
+			{
+				cache.signatures.put(strings[in.readInt()], in.readUTF());
+			}
+			log.info("Loaded [{}] category graph nodes from \"{}\".", cache.nodes.size(), filePath);
+		}
+		catch (Exception e)
+		{
+			log.warn("Failed to read category graph \"{}\". Start with an empty graph.", filePath, e);
+			cache.nodes.clear();
+			cache.signatures.clear();
+		}
+		return cache;
+	}
+
+	/**
+	 * @return 有效期内的解析结果，没有时返回{@code null}。
+	 */
+	public CategoryPageParsed get(String path)
+	{
+		Node node = nodes.get(path);
+		if (node == null || System.currentTimeMillis() - node.fetchedAt >= ttl)
+		{
+			return null;
+		}
+		touched.add(path);
+		reused.incrementAndGet();
+		return node.parsed;
+	}
+
+	/**
+	 * 保存请求得到的解析结果。
+	 */
+	public void put(String path, CategoryPageParsed parsed)
+	{
+		nodes.put(path, new Node(System.currentTimeMillis(), parsed));
+		touched.add(path);
+		refreshed.incrementAndGet();
+	}
+
+	/**
+	 * @return 缓存中出现的全部分类名。
+	 */
+	public Set<String> categories()
+	{
+		Set<String> result = new LinkedHashSet<>();
+		nodes.keySet().forEach(nodePath -> result.add(ownerOf(nodePath)));
+		return result;
+	}
+
+	/**
+	 * 比对各分类的成员数签名，签名变化或未知的分类及其分页路径全部失效。
+	 *
+	 * @param categories 待比对的分类名。
+	 * @param current    key = 分类名; value = 本次的成员数签名。查询失败的分类不包含在内，视作已变化。
+	 */
+	public void applySignatures(Collection<String> categories, Map<String, String> current)
+	{
+		Set<String> changed = new HashSet<>();
+		for (String category : categories)
+		{
+			String signature = current.get(category);
+			if (signature == null || !signature.equals(signatures.get(category)))
+			{
+				changed.add(category);
+			}
+			if (signature == null)
+			{
+				signatures.remove(category);
+			}
+			else
+			{
+				signatures.put(category, signature);
+			}
+		}
+		nodes.keySet().removeIf(nodePath -> changed.contains(ownerOf(nodePath)));
+		invalidated += changed.size();
+		log.info("[{}] of [{}] cached categories changed since last run.", changed.size(), categories.size());
+	}
+
+	/**
+	 * @return 本次请求过、但还没有成员数签名的分类名。
+	 */
+	public Set<String> categoriesWithoutSignature()
+	{
+		Set<String> result = new LinkedHashSet<>();
+		for (String nodePath : touched)
+		{
+			String owner = ownerOf(nodePath);
+			if (!signatures.containsKey(owner))
+			{
+				result.add(owner);
+			}
+		}
+		return result;
+	}
+
+	public void putSignatures(Map<String, String> current)
+	{
+		signatures.putAll(current);
+	}
+
+	/**
+	 * 写入缓存文件。
+	 *
+	 * @param prune 是否只保留本次遍历到的节点，只应在本次完整遍历时使用，以丢弃已不属于分类图的节点。
+	 */
+	public void save(boolean prune) throws IOException
+	{
+		Map<String, Node> saved = new LinkedHashMap<>();
+		nodes.forEach((nodePath, node) -> {
+			if (!prune || touched.contains(nodePath))
+			{
+				saved.put(nodePath, node);
+			}
+		});
+		Set<String> owners = new HashSet<>();
+		saved.keySet().forEach(nodePath -> owners.add(ownerOf(nodePath)));
+		Map<String, String> savedSignatures = new LinkedHashMap<>();
+		signatures.forEach((category, signature) -> {
+			if (owners.contains(category))
+			{
+				savedSignatures.put(category, signature);
+			}
+		});
+
+		Map<String, Integer> ids = new LinkedHashMap<>();
+		saved.forEach((nodePath, node) -> {
+			ids.putIfAbsent(nodePath, ids.size());
+			node.parsed.getNextPagePaths().forEach(s -> ids.putIfAbsent(s, ids.size()));
+			node.parsed.getSubCategories().forEach(s -> ids.putIfAbsent(s, ids.size()));
+			node.parsed.getSubPages().forEach(s -> ids.putIfAbsent(s, ids.size()));
+		});
+		savedSignatures.keySet().forEach(s -> ids.putIfAbsent(s, ids.size()));
+
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+			new GZIPOutputStream(Files.newOutputStream(temp)))))
+		{
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(ids.size());
+			for (String s : ids.keySet())
+			{
+				out.writeUTF(s);
+			}
+			out.writeInt(saved.size());
+			for (Map.Entry<String, Node> entry : saved.entrySet())
+			{
+				out.writeInt(ids.get(entry.getKey()));
+				out.writeLong(entry.getValue().fetchedAt);
+				writeStrings(out, ids, entry.getValue().parsed.getNextPagePaths());
+				writeStrings(out, ids, entry.getValue().parsed.getSubCategories());
+				writeStrings(out, ids, entry.getValue().parsed.getSubPages());
+			}
+			out.writeInt(savedSignatures.size());
+			for (Map.Entry<String, String> entry : savedSignatures.entrySet())
+			{
+				out.writeInt(ids.get(entry.getKey()));
+				out.writeUTF(entry.getValue());
+			}
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Saved [{}] category graph nodes to \"{}\".", saved.size(), path);
+	}
+
+	/**
+	 * @return 复用与刷新的页面数，以及成员数变化的分类数。
+	 */
+	public String summary()
+	{
+		return String.format(
+			"reused %d, refreshed %d, changed categories %d",
+			reused.get(), refreshed.get(), invalidated
+		);
+	}
+
+	/**
+	 * 确定请求路径所属的分类。分页路径归属于其分类，分类名本身归属于自身。
+	 */
+	static String ownerOf(String nodePath)
+	{
+		if (nodePath.startsWith(HTML_PAGING_PREFIX))
+		{
+			int start = HTML_PAGING_PREFIX.length();
+			int end = start;
+			while (end < nodePath.length() && nodePath.charAt(end) != '&' && nodePath.charAt(end) != '#')
+			{
+				end++;
+			}
+			try
+			{
+				return URLDecoder.decode(nodePath.substring(start, end), StandardCharsets.UTF_8);
+			}
+			catch (IllegalArgumentException e)
+			{
+				return nodePath.substring(start, end);
+			}
+		}
+		if (nodePath.startsWith(CATEGORY_PREFIX))
+		{
+			int separator = nodePath.indexOf(API_PAGING_SEPARATOR);
+			return separator < 0 ? nodePath : nodePath.substring(0, separator);
+		}
+		return nodePath;
+	}
+
+	private static Set<String> readStrings(DataInputStream in, String[] strings) throws IOException
+	{
+		int size = in.readInt();
+		if (size == 0)
+		{
+			return Collections.emptySet();
+		}
+		Set<String> result = new LinkedHashSet<>();
+		for (int i = 0; i < size; i++)
+		{
+			result.add(strings[in.readInt()]);
+		}
+		return result;
+	}
+
+	private static void writeStrings(DataOutputStream out, Map<String, Integer> ids, Set<String> values)
+		throws IOException
+	{
+		out.writeInt(values.size());
+		for (String value : values)
+		{
+			out.writeInt(ids.get(value));
+		}
+	}
+
+	private static class Node
+	{
+		private final long fetchedAt;
+		private final CategoryPageParsed parsed;
+
+		private Node(long fetchedAt, CategoryPageParsed parsed)
+		{
+			this.fetchedAt = fetchedAt;
+			this.parsed = parsed;
+		}
+	}
+}
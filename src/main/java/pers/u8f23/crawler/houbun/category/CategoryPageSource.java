@@ -0,0 +1,41 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Single;
+import pers.u8f23.crawler.houbun.category.config.CategoryParserType;
+import pers.u8f23.crawler.houbun.category.config.CategorySourceType;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+
+/**
+ * 分类页面的数据来源。
+ * 分类遍历只依赖此接口，请求路径包括分类名（形如{@code Category:xxx}）
+ * 以及由上一次结果{@link CategoryPageParsed#getNextPagePaths()}给出的分页路径。
+ *
+ * @author 8f23
+ * @create 2026/10/18-11:22
+ */
+public interface CategoryPageSource
+{
+	/**
+	 * 请求并解析单个分类页面或分页路径。
+	 */
+	Single<CategoryPageParsed> request(String path);
+
+	/**
+	 * @param parsedCache 分类页面解析结果缓存，为{@code null}时不缓存。
+	 */
+	static CategoryPageSource of(
+		CategorySourceType type,
+		CategoryParserType parserType,
+		ParsedPageCache parsedCache)
+	{
+		if (type == CategorySourceType.API)
+		{
+			return new ApiCategoryPageSource(HomeSiteService.getInstance());
+		}
+		return new HtmlCategoryPageSource(
+			HomeSiteService.getInstance(),
+			parserType,
+			parsedCache
+		);
+	}
+}
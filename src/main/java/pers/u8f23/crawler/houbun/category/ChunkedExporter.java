@@ -0,0 +1,449 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * 分块导出。
+ * 将待导出的页面按名称排序后切分为若干块，多个块并行导出至各自的临时文件，每个块独立重试；
+ * 全部块完成后，按顺序将各块的{@code <mediawiki>}文档流式合并为一个文档：
+ * 只保留第一块的文档头（含{@code siteinfo}），其余块跳过{@code </siteinfo>}及之前的内容，
+ * 各块的{@code </mediawiki>}均被去除，最后统一补上结束标签。
+ * 导出时附带模板，同一模板可能出现在多个块中，合并时按标题去重，只保留第一次出现的页面。
+ * 合并时只使用固定大小的缓冲区以及单个页面大小的暂存区，不会将整个块读入内存。
+ *
+ * @author 8f23
+ * @create 2026/10/18-15:40
+ */
+@Slf4j
+public class ChunkedExporter
+{
+	private static final byte[] SITEINFO_END = "</siteinfo>".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] DOCUMENT_END = "</mediawiki>".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] DOCUMENT_START = "<mediawiki".getBytes(StandardCharsets.UTF_8);
+	/** 文档头的长度上限，超出时判定文档格式错误。 */
+	private static final int MAX_HEADER_SIZE = 1 << 20;
+	/** 检查文档完整性时读取的首尾字节数。 */
+	private static final int PROBE_SIZE = 4096;
+
+	/**
+	 * 单个块的下载方法。
+	 */
+	@FunctionalInterface
+	public interface ChunkDownloader
+	{
+		/**
+		 * 导出指定页面至目标文件，方法内部应当自行重试。
+		 *
+		 * @return 是否导出成功。
+		 */
+		boolean download(List<String> pages, Path target, String description);
+	}
+
+	/**
+	 * 合并结果的输出位置。
+	 */
+	@FunctionalInterface
+	public interface OutputOpener
+	{
+		OutputStream open() throws IOException;
+	}
+
+	private final int chunkSize;
+	private final int parallelism;
+	private final int bufferSize;
+	private final ChunkDownloader downloader;
+
+	public ChunkedExporter(int chunkSize, int parallelism, int bufferSize, ChunkDownloader downloader)
+	{
+		this.chunkSize = Math.max(1, chunkSize);
+		this.parallelism = Math.max(1, parallelism);
+		this.bufferSize = Math.max(1024, bufferSize);
+		this.downloader = downloader;
+	}
+
+	/**
+	 * 分块导出页面，并合并至{@code outputPath}。
+	 *
+	 * @return 是否导出成功。任意一块最终失败时，不会产生合并结果。
+	 */
+	public boolean export(Collection<String> pages, String outputPath)
+	{
+		return export(pages, outputPath, () -> Files.newOutputStream(Paths.get(outputPath)));
+	}
+
+	/**
+	 * 分块导出页面，并合并至{@code output}打开的输出流，输出流在合并完成后关闭。
+	 *
+	 * @param partPrefix 各块临时文件的路径前缀。
+	 * @return 是否导出成功。任意一块最终失败时，不会打开输出流。
+	 */
+	public boolean export(Collection<String> pages, String partPrefix, OutputOpener output)
+	{
+		List<String> sortedPages = pages.stream().sorted().collect(Collectors.toList());
+		List<List<String>> chunks = new ArrayList<>();
+		for (int from = 0; from < sortedPages.size(); from += chunkSize)
+		{
+			chunks.add(sortedPages.subList(from, Math.min(from + chunkSize, sortedPages.size())));
+		}
+		List<Path> parts = new ArrayList<>();
+		for (int i = 0; i < chunks.size(); i++)
+		{
+			parts.add(Paths.get(partPrefix + ".part" + i));
+		}
+		log.info("Export [{}] pages in [{}] chunks with parallelism [{}].",
+			sortedPages.size(), chunks.size(), parallelism);
+
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try
+		{
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (int i = 0; i < chunks.size(); i++)
+			{
+				List<String> chunk = chunks.get(i);
+				Path part = parts.get(i);
+				String description = String.format("chunk [%d / %d]", i + 1, chunks.size());
+				futures.add(executor.submit(() -> downloader.download(chunk, part, description)
+				                                  && isCompleteDocument(part)));
+			}
+			boolean succeeded = true;
+			for (int i = 0; i < futures.size(); i++)
+			{
+				if (!futures.get(i).get())
+				{
+					log.error("Failed to export chunk [{} / {}].", i + 1, chunks.size());
+					succeeded = false;
+				}
+			}
+			if (!succeeded)
+			{
+				return false;
+			}
+			try (OutputStream out = output.open())
+			{
+				merge(parts, out);
+			}
+			log.info("Merged [{}] chunks.", parts.size());
+			return true;
+		}
+		catch (Exception e)
+		{
+			log.error("Failed to export chunks.", e);
+			return false;
+		}
+		finally
+		{
+			executor.shutdownNow();
+			for (Path part : parts)
+			{
+				try
+				{
+					Files.deleteIfExists(part);
+				}
+				catch (IOException e)
+				{
+					log.warn("Failed to delete chunk file \"{}\".", part, e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 按顺序流式合并各块的导出文档。
+	 */
+	public void merge(List<Path> parts, OutputStream out) throws IOException
+	{
+		byte[] buffer = new byte[bufferSize];
+		Set<String> writtenPages = new HashSet<>();
+		int duplicates = 0;
+		for (int i = 0; i < parts.size(); i++)
+		{
+			try (InputStream in =
+				     new BufferedInputStream(Files.newInputStream(parts.get(i)), bufferSize))
+			{
+				if (i > 0)
+				{
+					skipPast(in, SITEINFO_END);
+				}
+				DistinctPageOutputStream distinct = new DistinctPageOutputStream(out, writtenPages);
+				copyExceptDocumentEnd(in, distinct, buffer);
+				distinct.finish();
+				duplicates += distinct.duplicates;
+			}
+		}
+		out.write(DOCUMENT_END);
+		out.write('\n');
+		if (duplicates > 0)
+		{
+			log.info("Dropped [{}] duplicated pages while merging chunks.", duplicates);
+		}
+	}
+
+	/**
+	 * 检查导出文件是否为完整的文档，用于发现中途断开的下载以及错误页面。
+	 */
+	public static boolean isCompleteDocument(Path path) throws IOException
+	{
+		try (SeekableByteChannel channel = Files.newByteChannel(path))
+		{
+			long size = channel.size();
+			ByteBuffer probe = ByteBuffer.allocate((int) Math.min(PROBE_SIZE, size));
+			readFully(channel, probe, 0);
+			if (indexOf(probe.array(), probe.position(), DOCUMENT_START) < 0)
+			{
+				return false;
+			}
+			probe.clear();
+			readFully(channel, probe, size - probe.capacity());
+			return indexOf(probe.array(), probe.position(), DOCUMENT_END) >= 0;
+		}
+	}
+
+	private static void readFully(SeekableByteChannel channel, ByteBuffer buffer, long position)
+		throws IOException
+	{
+		channel.position(position);
+		while (buffer.hasRemaining() && channel.read(buffer) >= 0)
+		{
+			// continue
+		}
+	}
+
+	/**
+	 * 跳过输入流中直到{@code marker}结束为止的内容。
+	 */
+	private static void skipPast(InputStream in, byte[] marker) throws IOException
+	{
+		int matched = 0;
+		int consumed = 0;
+		int b;
+		while ((b = in.read()) >= 0)
+		{
+			if (++consumed > MAX_HEADER_SIZE)
+			{
+				break;
+			}
+			// 标记中没有重复的前缀，失配时只需重新比较当前字节。
+			if (b == marker[matched])
+			{
+				if (++matched == marker.length)
+				{
+					return;
+				}
+			}
+			else
+			{
+				matched = b == marker[0] ? 1 : 0;
+			}
+		}
+		throw new IOException(
+			"Malformed export document: missing " + new String(marker, StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * 复制输入流，但不输出最后一个{@code </mediawiki>}及其后的内容。
+	 * 结束标签只会出现在文档末尾，因此只需暂留末尾若干字节，待输入结束后再确定截断位置。
+	 */
+	private static void copyExceptDocumentEnd(InputStream in, OutputStream out, byte[] buffer)
+		throws IOException
+	{
+		int holdSize = PROBE_SIZE;
+		byte[] hold = new byte[holdSize + buffer.length];
+		int held = 0;
+		int read;
+		while ((read = in.read(buffer)) >= 0)
+		{
+			System.arraycopy(buffer, 0, hold, held, read);
+			held += read;
+			if (held > holdSize)
+			{
+				int flush = held - holdSize;
+				out.write(hold, 0, flush);
+				System.arraycopy(hold, flush, hold, 0, holdSize);
+				held = holdSize;
+			}
+		}
+		int end = lastIndexOf(hold, held, DOCUMENT_END);
+		out.write(hold, 0, end < 0 ? held : end);
+	}
+
+	/**
+	 * 去除重复页面的输出流。页面在{@code </page>}之前暂留于内存，标题已输出过的页面被丢弃；
+	 * 页面之外的内容原样输出。
+	 */
+	private static class DistinctPageOutputStream extends OutputStream
+	{
+		private final OutputStream out;
+		/** 已输出的页面，页面名经过规范化。 */
+		private final Set<String> writtenPages;
+		private final ExportPageScanner scanner;
+		private byte[] pending = new byte[1 << 16];
+		private int pendingLength;
+		/** 暂存区首字节在流中的位置。 */
+		private long pendingStart;
+		private boolean inPage;
+		private IOException failure;
+		private int duplicates;
+
+		private DistinctPageOutputStream(OutputStream out, Set<String> writtenPages)
+		{
+			this.out = out;
+			this.writtenPages = writtenPages;
+			this.scanner = new ExportPageScanner(new ExportPageScanner.Listener()
+			{
+				@Override
+				public void onPageStart(long start)
+				{
+					emit(start);
+					inPage = true;
+				}
+
+				@Override
+				public void onPageEnd(String title, long start, long end)
+				{
+					if (writtenPages.add(ExportPageScanner.normalizeTitle(title)))
+					{
+						emit(end);
+					}
+					else
+					{
+						duplicates++;
+						consume(end);
+					}
+					inPage = false;
+				}
+			});
+		}
+
+		@Override
+		public void write(int b) throws IOException
+		{
+			write(new byte[]{(byte) b}, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException
+		{
+			if (pendingLength + len > pending.length)
+			{
+				pending = Arrays.copyOf(pending, Math.max(pending.length * 2, pendingLength + len));
+			}
+			System.arraycopy(b, off, pending, pendingLength, len);
+			pendingLength += len;
+			for (int i = off; i < off + len; i++)
+			{
+				scanner.scan(b[i]);
+			}
+			checkFailure();
+			if (!inPage)
+			{
+				// 最后一个标签可能是尚未扫描完的页面起始标签，暂留。
+				int lastTag = pendingLength - 1;
+				while (lastTag >= 0 && pending[lastTag] != '<')
+				{
+					lastTag--;
+				}
+				emit(pendingStart + (lastTag < 0 ? pendingLength : lastTag));
+				checkFailure();
+			}
+		}
+
+		/**
+		 * 输出暂留的全部内容，不关闭下层输出流。
+		 */
+		private void finish() throws IOException
+		{
+			emit(pendingStart + pendingLength);
+			checkFailure();
+		}
+
+		/**
+		 * 输出{@code position}之前的内容。
+		 */
+		private void emit(long position)
+		{
+			try
+			{
+				out.write(pending, 0, (int) (position - pendingStart));
+			}
+			catch (IOException e)
+			{
+				failure = e;
+			}
+			consume(position);
+		}
+
+		/**
+		 * 丢弃{@code position}之前的内容。
+		 */
+		private void consume(long position)
+		{
+			int count = (int) (position - pendingStart);
+			System.arraycopy(pending, count, pending, 0, pendingLength - count);
+			pendingLength -= count;
+			pendingStart = position;
+		}
+
+		private void checkFailure() throws IOException
+		{
+			if (failure != null)
+			{
+				throw failure;
+			}
+		}
+	}
+
+	private static int indexOf(byte[] data, int length, byte[] target)
+	{
+		outer:
+		for (int i = 0; i + target.length <= length; i++)
+		{
+			for (int j = 0; j < target.length; j++)
+			{
+				if (data[i + j] != target[j])
+				{
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+
+	private static int lastIndexOf(byte[] data, int length, byte[] target)
+	{
+		outer:
+		for (int i = length - target.length; i >= 0; i--)
+		{
+			for (int j = 0; j < target.length; j++)
+			{
+				if (data[i + j] != target[j])
+				{
+					continue outer;
+				}
+			}
+			return i;
+		}
+		return -1;
+	}
+}
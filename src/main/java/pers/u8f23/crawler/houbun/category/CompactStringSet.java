@@ -0,0 +1,258 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 紧凑的字符串集合。
+ * 字符串以UTF-8编码依次存放在大块的字节数组中，通过开放寻址的{@code int}哈希表索引，
+ * 每个元素只占用其编码长度外约20字节，不再为每个元素保留{@link String}对象与哈希节点。
+ * 迭代顺序为插入顺序，迭代时重新解码出字符串。
+ * <p>
+ * 添加与查询方法是线程安全的；不支持删除元素；迭代期间不应修改集合。
+ *
+ * @author 8f23
+ * @create 2026/10/18-19:40
+ */
+public class CompactStringSet extends AbstractSet<String>
+{
+	private static final int BLOCK_SIZE = 1 << 20;
+	private static final int INITIAL_CAPACITY = 1 << 10;
+
+	private final List<byte[]> blocks = new ArrayList<>();
+	private int blockOffset = BLOCK_SIZE;
+	/** 各元素的地址，按插入顺序排列。高32位为块序号，低32位为块内偏移量。 */
+	private long[] addresses = new long[INITIAL_CAPACITY];
+	private int[] hashes = new int[INITIAL_CAPACITY];
+	/** 哈希表，存放元素序号加一，0表示空位。 */
+	private int[] table = new int[INITIAL_CAPACITY * 2];
+	private int size;
+
+	public CompactStringSet()
+	{
+	}
+
+	public CompactStringSet(Collection<String> values)
+	{
+		addAll(values);
+	}
+
+	@Override
+	public synchronized boolean add(String value)
+	{
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		int hash = hash(encoded);
+		int mask = table.length - 1;
+		int slot = hash & mask;
+		while (table[slot] != 0)
+		{
+			int index = table[slot] - 1;
+			if (hashes[index] == hash && equalsAt(addresses[index], encoded))
+			{
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+		if (size == addresses.length)
+		{
+			addresses = Arrays.copyOf(addresses, size * 2);
+			hashes = Arrays.copyOf(hashes, size * 2);
+		}
+		addresses[size] = store(encoded);
+		hashes[size] = hash;
+		table[slot] = ++size;
+		// 负载因子保持在0.5以下。
+		if (size * 2 > table.length)
+		{
+			rehash(table.length * 2);
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized boolean contains(Object o)
+	{
+		if (!(o instanceof String))
+		{
+			return false;
+		}
+		byte[] encoded = ((String) o).getBytes(StandardCharsets.UTF_8);
+		int hash = hash(encoded);
+		int mask = table.length - 1;
+		for (int slot = hash & mask; table[slot] != 0; slot = (slot + 1) & mask)
+		{
+			int index = table[slot] - 1;
+			if (hashes[index] == hash && equalsAt(addresses[index], encoded))
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public synchronized boolean addAll(Collection<? extends String> values)
+	{
+		boolean changed = false;
+		for (String value : values)
+		{
+			changed |= add(value);
+		}
+		return changed;
+	}
+
+	@Override
+	public synchronized int size()
+	{
+		return size;
+	}
+
+	@Override
+	public Iterator<String> iterator()
+	{
+		return new Iterator<String>()
+		{
+			private int next;
+
+			@Override
+			public boolean hasNext()
+			{
+				return next < size;
+			}
+
+			@Override
+			public String next()
+			{
+				if (next >= size)
+				{
+					throw new NoSuchElementException();
+				}
+				return decode(addresses[next++]);
+			}
+		};
+	}
+
+	/**
+	 * @return 存放字符串所占用的字节数，包括哈希表。
+	 */
+	public synchronized long memoryUsage()
+	{
+		long blockBytes = 0;
+		for (byte[] block : blocks)
+		{
+			blockBytes += block.length;
+		}
+		return blockBytes
+		       + (long) addresses.length * Long.BYTES
+		       + (long) hashes.length * Integer.BYTES
+		       + (long) table.length * Integer.BYTES;
+	}
+
+	private void rehash(int capacity)
+	{
+		int[] newTable = new int[capacity];
+		int mask = capacity - 1;
+		for (int index = 0; index < size; index++)
+		{
+			int slot = hashes[index] & mask;
+			while (newTable[slot] != 0)
+			{
+				slot = (slot + 1) & mask;
+			}
+			newTable[slot] = index + 1;
+		}
+		table = newTable;
+	}
+
+	/**
+	 * 以变长整数记录长度，其后为编码后的字节。单个元素不会跨越块。
+	 */
+	private long store(byte[] encoded)
+	{
+		int required = varIntSize(encoded.length) + encoded.length;
+		if (blockOffset + required > currentBlockSize())
+		{
+			blocks.add(new byte[Math.max(BLOCK_SIZE, required)]);
+			blockOffset = 0;
+		}
+		byte[] block = blocks.get(blocks.size() - 1);
+		long address = ((long) (blocks.size() - 1) << 32) | blockOffset;
+		int length = encoded.length;
+		while ((length & ~0x7F) != 0)
+		{
+			block[blockOffset++] = (byte) ((length & 0x7F) | 0x80);
+			length >>>= 7;
+		}
+		block[blockOffset++] = (byte) length;
+		System.arraycopy(encoded, 0, block, blockOffset, encoded.length);
+		blockOffset += encoded.length;
+		return address;
+	}
+
+	private int currentBlockSize()
+	{
+		return blocks.isEmpty() ? 0 : blocks.get(blocks.size() - 1).length;
+	}
+
+	private boolean equalsAt(long address, byte[] encoded)
+	{
+		byte[] block = blocks.get((int) (address >>> 32));
+		int offset = (int) address;
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = block[offset++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while (b < 0);
+		return Arrays.equals(block, offset, offset + length, encoded, 0, encoded.length);
+	}
+
+	private String decode(long address)
+	{
+		byte[] block = blocks.get((int) (address >>> 32));
+		int offset = (int) address;
+		int length = 0;
+		int shift = 0;
+		byte b;
+		do
+		{
+			b = block[offset++];
+			length |= (b & 0x7F) << shift;
+			shift += 7;
+		}
+		while (b < 0);
+		return new String(block, offset, length, StandardCharsets.UTF_8);
+	}
+
+	private static int varIntSize(int value)
+	{
+		int size = 1;
+		while ((value & ~0x7F) != 0)
+		{
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	private static int hash(byte[] encoded)
+	{
+		// FNV-1a，再打散高位以适应线性探测。
+		int h = 0x811C9DC5;
+		for (byte b : encoded)
+		{
+			h = (h ^ (b & 0xFF)) * 0x01000193;
+		}
+		return h ^ (h >>> 16);
+	}
+}
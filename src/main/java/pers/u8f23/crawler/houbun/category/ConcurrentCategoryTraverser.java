@@ -0,0 +1,162 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * 并发的分类遍历器。
+ * 固定数量的工作线程从共享的待访问队列中取出分类页面并发起请求，
+ * 已访问的分类页面及分页请求路径记录在线程安全的集合中，保证每个页面只会请求一次。
+ * 请求速率由{@link HttpUtils#HOME_SITE_RATE_LIMITER}统一限制。
+ *
+ * @author 8f23
+ * @create 2026/10/18-10:31
+ */
+@Slf4j
+public class ConcurrentCategoryTraverser
+{
+	private static final long POLL_INTERVAL_MILLIS = 50;
+
+	private final int parallelism;
+	private final Function<String, CategoryPageParsed> requester;
+
+	/**
+	 * @param parallelism 同时进行中的请求数上限。
+	 * @param requester   分类页面请求方法，请求失败时应当返回{@code null}。
+	 */
+	public ConcurrentCategoryTraverser(
+		int parallelism,
+		Function<String, CategoryPageParsed> requester)
+	{
+		this.parallelism = Math.max(1, parallelism);
+		this.requester = requester;
+	}
+
+	/**
+	 * 从参数{@code roots}指定的各个分类页面出发，遍历各级子分类页面，
+	 * 各级分类下的条目名视作结果被添加到集合{@code result}中。
+	 * 此方法会阻塞至遍历完成。
+	 *
+	 * @param visited     已访问的分类页面及分页请求路径，必须是线程安全的集合。
+	 * @param onTraversed 每个页面请求成功后执行此方法，可能在多个线程中同时执行。
+	 */
+	public void traverse(
+		Collection<String> roots,
+		Set<String> visited,
+		Set<String> result,
+		BiConsumer<String, CategoryPageParsed> onTraversed)
+	{
+		BlockingDeque<String> frontier = new LinkedBlockingDeque<>();
+		// 队列中及请求中的页面总数，归零时遍历结束。
+		AtomicInteger pending = new AtomicInteger();
+		for (String root : roots)
+		{
+			offer(root, visited, frontier, pending);
+		}
+
+		// 虚拟线程模式下，每个工作者各占一个虚拟线程。
+		ExecutorService executor = VirtualThreads.newTaskExecutor(parallelism);
+		try
+		{
+			for (int i = 0; i < parallelism; i++)
+			{
+				executor.execute(() -> work(visited, frontier, pending, result, onTraversed));
+			}
+			executor.shutdown();
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES))
+			{
+				log.info("Concurrent traversal in progress. Pending pages: [{}].", pending.get());
+			}
+		}
+		catch (InterruptedException e)
+		{
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void work(
+		Set<String> visited,
+		BlockingDeque<String> frontier,
+		AtomicInteger pending,
+		Set<String> result,
+		BiConsumer<String, CategoryPageParsed> onTraversed)
+	{
+		try
+		{
+			while (true)
+			{
+				String currCate = frontier.pollLast(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+				if (currCate == null)
+				{
+					if (pending.get() == 0)
+					{
+						return;
+					}
+					continue;
+				}
+				try
+				{
+					CategoryPageParsed cateInfos = requester.apply(currCate);
+					if (cateInfos != null)
+					{
+						onTraversed.accept(currCate, cateInfos);
+					}
+					cateInfos = cateInfos != null ? cateInfos : CategoryPageParsed.EMPTY_RESULT;
+					// 子页面须在当前页面计数释放前入队，否则其他线程可能误判遍历已结束。
+					for (String path : cateInfos.getNextPagePaths())
+					{
+						offer(path, visited, frontier, pending);
+					}
+					for (String path : cateInfos.getSubCategories())
+					{
+						offer(path, visited, frontier, pending);
+					}
+					synchronized (result)
+					{
+						result.addAll(cateInfos.getSubPages());
+					}
+				}
+				catch (Exception e)
+				{
+					log.warn("Failed to traverse category page <{}>.", currCate, e);
+				}
+				finally
+				{
+					pending.decrementAndGet();
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static void offer(
+		String path,
+		Set<String> visited,
+		BlockingDeque<String> frontier,
+		AtomicInteger pending)
+	{
+		if (!path.startsWith("Category:")
+		    && !path.startsWith("/index.php?title=Category:"))
+		{
+			return;
+		}
+		if (!visited.add(path))
+		{
+			// 无视已遍历的页面。
+			return;
+		}
+		pending.incrementAndGet();
+		frontier.addLast(path);
+	}
+}
@@ -0,0 +1,257 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.config.DaemonConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 守护进程模式的调度器。
+ * 计划线程只负责按cron表达式或固定间隔触发，备份在单独的执行线程中进行；
+ * 触发时若上次执行尚未结束，则跳过本次触发，因此任意时刻至多只有一次执行。
+ * 可选地在回环地址上提供状态接口：
+ * {@code GET /health}返回存活状态，{@code GET /status}返回调度状态，{@code POST /run}立即触发一次执行。
+ *
+ * @author 8f23
+ * @create 2026/10/19-01:30
+ */
+@Slf4j
+public class CrawlDaemon implements Closeable
+{
+	private static final Gson GSON = new Gson();
+
+	private final DaemonConfig config;
+	/** 按固定间隔执行时为空。 */
+	private final CronSchedule cron;
+	/** 执行一次备份，返回是否成功。 */
+	private final BooleanSupplier task;
+	private final ScheduledExecutorService scheduler =
+		Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "daemon-scheduler"));
+	private final ExecutorService runner =
+		Executors.newSingleThreadExecutor(r -> new Thread(r, "daemon-runner"));
+	private final AtomicBoolean running = new AtomicBoolean();
+	private final AtomicLong runs = new AtomicLong();
+	private final AtomicLong failures = new AtomicLong();
+	private final AtomicLong skipped = new AtomicLong();
+	private volatile Instant nextRun;
+	private volatile Instant lastStart;
+	private volatile Instant lastFinish;
+	private volatile Boolean lastSucceeded;
+	private HttpServer server;
+
+	/**
+	 * @throws IllegalArgumentException 未配置执行计划，或cron表达式格式错误。
+	 */
+	public CrawlDaemon(DaemonConfig config, BooleanSupplier task)
+	{
+		if (config.getCron() == null && config.getInterval() <= 0)
+		{
+			throw new IllegalArgumentException("Either cron or a positive interval is required.");
+		}
+		this.config = config;
+		this.cron = config.getCron() == null ? null : CronSchedule.parse(config.getCron());
+		this.task = task;
+	}
+
+	public void start() throws IOException
+	{
+		if (config.getStatusPort() > 0)
+		{
+			server = HttpServer.create(
+				new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getStatusPort()),
+				0
+			);
+			server.createContext("/health", this::handleHealth);
+			server.createContext("/status", this::handleStatus);
+			server.createContext("/run", this::handleRun);
+			server.start();
+			log.info("Daemon status endpoint started at port [{}].", config.getStatusPort());
+		}
+		if (config.isRunOnStart())
+		{
+			trigger("start");
+		}
+		scheduleNext(Instant.now());
+		log.info("Daemon started. Schedule: [{}]. Next run at [{}].",
+			cron != null ? "cron " + cron : "every " + config.getInterval() + " ms", nextRun);
+	}
+
+	/**
+	 * 阻塞至守护进程关闭。
+	 */
+	public void awaitTermination()
+	{
+		try
+		{
+			while (!scheduler.awaitTermination(1, TimeUnit.HOURS))
+			{
+				// continue
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * 计划下次触发。cron模式取{@code previous}之后的下个匹配时间；
+	 * 间隔模式取{@code previous}之后间隔的整数倍，错过的触发不会补执行。
+	 */
+	private void scheduleNext(Instant previous)
+	{
+		Instant now = Instant.now();
+		Instant next;
+		if (cron != null)
+		{
+			next = cron.next(ZonedDateTime.now()).toInstant();
+		}
+		else
+		{
+			next = previous.plusMillis(config.getInterval());
+			while (!next.isAfter(now))
+			{
+				next = next.plusMillis(config.getInterval());
+			}
+		}
+		Instant scheduled = next;
+		nextRun = scheduled;
+		scheduler.schedule(() -> {
+			trigger("schedule");
+			scheduleNext(scheduled);
+		}, Duration.between(now, scheduled).toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 触发一次执行。
+	 *
+	 * @return 是否开始执行。上次执行尚未结束时返回{@code false}。
+	 */
+	private boolean trigger(String reason)
+	{
+		if (!running.compareAndSet(false, true))
+		{
+			skipped.incrementAndGet();
+			log.warn("Skip the run triggered by [{}]: the previous run started at [{}] is still in progress.",
+				reason, lastStart);
+			return false;
+		}
+		runner.execute(() -> {
+			lastStart = Instant.now();
+			runs.incrementAndGet();
+			log.info("Daemon run [{}] started, triggered by [{}].", runs.get(), reason);
+			boolean succeeded = false;
+			try
+			{
+				succeeded = task.getAsBoolean();
+			}
+			catch (Exception e)
+			{
+				log.error("Daemon run [{}] failed.", runs.get(), e);
+			}
+			finally
+			{
+				if (!succeeded)
+				{
+					failures.incrementAndGet();
+				}
+				lastSucceeded = succeeded;
+				lastFinish = Instant.now();
+				running.set(false);
+				log.info("Daemon run [{}] finished in [{}] ms. Next run at [{}].",
+					runs.get(), Duration.between(lastStart, lastFinish).toMillis(), nextRun);
+			}
+		});
+		return true;
+	}
+
+	private void handleHealth(HttpExchange exchange) throws IOException
+	{
+		respond(exchange, 200, "text/plain", "ok");
+	}
+
+	private void handleStatus(HttpExchange exchange) throws IOException
+	{
+		Map<String, Object> status = new LinkedHashMap<>();
+		status.put("state", running.get() ? "running" : "idle");
+		status.put("runs", runs.get());
+		status.put("failures", failures.get());
+		status.put("skipped", skipped.get());
+		status.put("lastStart", lastStart == null ? null : lastStart.toString());
+		status.put("lastFinish", lastFinish == null ? null : lastFinish.toString());
+		status.put("lastSucceeded", lastSucceeded);
+		status.put("nextRun", nextRun == null ? null : nextRun.toString());
+		respond(exchange, 200, "application/json", GSON.toJson(status));
+	}
+
+	private void handleRun(HttpExchange exchange) throws IOException
+	{
+		if (!"POST".equals(exchange.getRequestMethod()))
+		{
+			respond(exchange, 405, "text/plain", "POST only");
+			return;
+		}
+		if (trigger("status endpoint"))
+		{
+			respond(exchange, 202, "text/plain", "started");
+		}
+		else
+		{
+			respond(exchange, 409, "text/plain", "already running");
+		}
+	}
+
+	private static void respond(HttpExchange exchange, int code, String contentType, String body)
+		throws IOException
+	{
+		try
+		{
+			byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().set("Content-Type", contentType + ";charset=utf-8");
+			exchange.sendResponseHeaders(code, bytes.length);
+			try (OutputStream os = exchange.getResponseBody())
+			{
+				os.write(bytes);
+			}
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * 停止计划与状态接口，并中断进行中的执行。
+	 */
+	@Override
+	public void close()
+	{
+		log.info("Daemon stopping.");
+		if (server != null)
+		{
+			server.stop(0);
+		}
+		scheduler.shutdownNow();
+		runner.shutdownNow();
+	}
+}
@@ -0,0 +1,550 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 只追加的爬取日志，用于在进程异常退出后从中断处继续执行。
+ * 每条记录占一行，字段以制表符分隔（页面标题中不允许出现制表符与换行符）：
+ * <ul>
+ *     <li>{@code Q scope path}：遍历中发现的待访问路径；</li>
+ *     <li>{@code R scope title}：遍历得到的结果页面；</li>
+ *     <li>{@code V scope path}：已完成请求的路径，总是写在该路径的{@code Q}与{@code R}记录之后；</li>
+ *     <li>{@code C work creator...}：作品的作者；</li>
+ *     <li>{@code D phase [value]}：已完成的阶段。</li>
+ * </ul>
+ * 记录按批次刷写至磁盘，阶段完成时强制同步并压缩日志，全部任务完成后删除日志；
+ * 任务失败时应当{@link #close()}日志，已写入的记录会被保留，供下次执行继续。
+ * 未配置日志路径时，所有方法均不做任何事。
+ *
+ * @author 8f23
+ * @create 2026/10/18-13:10
+ */
+@Slf4j
+public class CrawlJournal implements Closeable
+{
+	public static final String PHASE_WORKS = "works";
+	public static final String PHASE_PAGES = "pages";
+	public static final String PHASE_CREATORS = "creators";
+	public static final String PHASE_DOWNLOAD = "download";
+	public static final String PHASE_COMPRESS = "compress";
+
+	private static final int FLUSH_BATCH_SIZE = 1024;
+	private static final int IO_BUFFER_SIZE = 1 << 16;
+	private static final char SEPARATOR = '\t';
+
+	private final Path path;
+	/** 写入时持有的锁。不使用{@code synchronized}，以免在持有监视器时刷写磁盘而固定虚拟线程。 */
+	private final ReentrantLock lock = new ReentrantLock();
+	@Getter
+	private final State state = new State();
+	private FileOutputStream fileStream;
+	private Writer writer;
+	private int unflushedRecords;
+
+	private CrawlJournal(Path path)
+	{
+		this.path = path;
+	}
+
+	/**
+	 * 打开日志并重放已有的记录。
+	 *
+	 * @param path 日志路径，为空时返回不做任何记录的日志。
+	 */
+	public static CrawlJournal open(String path) throws IOException
+	{
+		if (path == null || path.isEmpty())
+		{
+			return new CrawlJournal(null);
+		}
+		CrawlJournal journal = new CrawlJournal(Paths.get(path));
+		journal.replay();
+		journal.openWriter();
+		return journal;
+	}
+
+	public boolean isEnabled()
+	{
+		return path != null;
+	}
+
+	/**
+	 * 记录一个已完成请求的分类页面。
+	 */
+	public void recordPage(String scope, String pagePath, CategoryPageParsed parsed)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			TraversalState traversal = state.traversal(scope);
+			for (String next : parsed.getNextPagePaths())
+			{
+				traversal.discovered.add(next);
+				append("Q", scope, next);
+			}
+			for (String sub : parsed.getSubCategories())
+			{
+				traversal.discovered.add(sub);
+				append("Q", scope, sub);
+			}
+			for (String page : parsed.getSubPages())
+			{
+				traversal.results.add(page);
+				append("R", scope, page);
+			}
+			traversal.visited.add(pagePath);
+			append("V", scope, pagePath);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	public void recordCreators(String work, Collection<String> creators)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			state.creators.put(work, new LinkedHashSet<>(creators));
+			StringBuilder sb = new StringBuilder("C").append(SEPARATOR).append(work);
+			for (String creator : creators)
+			{
+				sb.append(SEPARATOR).append(creator);
+			}
+			appendLine(sb);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 记录阶段完成，同步日志至磁盘并压缩。
+	 *
+	 * @param value 阶段的附加信息，如产出文件的路径，可以为{@code null}。
+	 */
+	public void completePhase(String phase, String value)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			if (writer == null)
+			{
+				return;
+			}
+			state.completedPhases.put(phase, value == null ? "" : value);
+			TraversalState traversal = state.traversals.get(phase);
+			if (traversal != null)
+			{
+				// 已完成的遍历阶段只需保留结果。紧凑集合不支持删除，直接替换为空集合。
+				traversal.discovered = new CompactStringSet();
+				traversal.visited = new CompactStringSet();
+			}
+			if (value == null)
+			{
+				append("D", phase);
+			}
+			else
+			{
+				append("D", phase, value);
+			}
+			try
+			{
+				sync();
+				compact();
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to checkpoint crawl journal at \"{}\".", path, e);
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 全部任务完成后删除日志。
+	 */
+	public void finish()
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			try
+			{
+				closeWriter();
+				Files.deleteIfExists(path);
+				log.info("Crawl journal \"{}\" finished and removed.", path);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to remove crawl journal at \"{}\".", path, e);
+			}
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 同步并关闭日志，保留日志文件。重复调用或在{@link #finish()}之后调用时不做任何事。
+	 */
+	@Override
+	public void close()
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+		lock.lock();
+		try
+		{
+			if (writer != null)
+			{
+				try
+				{
+					sync();
+				}
+				finally
+				{
+					closeWriter();
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to close crawl journal at \"{}\".", path, e);
+		}
+		finally
+		{
+			lock.unlock();
+		}
+	}
+
+	private void append(String... fields)
+	{
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < fields.length; i++)
+		{
+			if (i > 0)
+			{
+				sb.append(SEPARATOR);
+			}
+			sb.append(fields[i]);
+		}
+		appendLine(sb);
+	}
+
+	private void appendLine(CharSequence line)
+	{
+		if (writer == null)
+		{
+			// 日志已关闭，例如任务失败后仍在返回的并发请求。
+			return;
+		}
+		try
+		{
+			writer.append(line).append('\n');
+			if (++unflushedRecords >= FLUSH_BATCH_SIZE)
+			{
+				writer.flush();
+				unflushedRecords = 0;
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to write crawl journal at \"{}\".", path, e);
+		}
+	}
+
+	private void sync() throws IOException
+	{
+		writer.flush();
+		unflushedRecords = 0;
+		fileStream.getFD().sync();
+	}
+
+	private void openWriter() throws IOException
+	{
+		fileStream = new FileOutputStream(path.toFile(), true);
+		writer = new BufferedWriter(
+			new OutputStreamWriter(fileStream, StandardCharsets.UTF_8),
+			IO_BUFFER_SIZE
+		);
+	}
+
+	private void closeWriter() throws IOException
+	{
+		if (writer != null)
+		{
+			writer.close();
+			writer = null;
+			fileStream = null;
+		}
+	}
+
+	/**
+	 * 以当前状态重写日志：已完成的遍历阶段只保留结果，其余记录去重后保留。
+	 * 新日志先写入临时文件，再原子地替换旧日志。
+	 */
+	private void compact() throws IOException
+	{
+		closeWriter();
+		Path temp = path.resolveSibling(path.getFileName() + ".compact");
+		try (Writer out = new BufferedWriter(
+			new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8),
+			IO_BUFFER_SIZE))
+		{
+			for (Map.Entry<String, TraversalState> entry : state.traversals.entrySet())
+			{
+				String scope = entry.getKey();
+				TraversalState traversal = entry.getValue();
+				if (!state.isCompleted(scope))
+				{
+					for (String pending : traversal.getPending())
+					{
+						writeRecord(out, "Q", scope, pending);
+					}
+					for (String visited : traversal.visited)
+					{
+						writeRecord(out, "V", scope, visited);
+					}
+				}
+				for (String result : traversal.results)
+				{
+					writeRecord(out, "R", scope, result);
+				}
+			}
+			for (Map.Entry<String, Set<String>> entry : state.creators.entrySet())
+			{
+				out.append('C').append(SEPARATOR).append(entry.getKey());
+				for (String creator : entry.getValue())
+				{
+					out.append(SEPARATOR).append(creator);
+				}
+				out.append('\n');
+			}
+			for (Map.Entry<String, String> entry : state.completedPhases.entrySet())
+			{
+				if (entry.getValue().isEmpty())
+				{
+					writeRecord(out, "D", entry.getKey());
+				}
+				else
+				{
+					writeRecord(out, "D", entry.getKey(), entry.getValue());
+				}
+			}
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		openWriter();
+	}
+
+	private static void writeRecord(Writer out, String... fields) throws IOException
+	{
+		for (int i = 0; i < fields.length; i++)
+		{
+			if (i > 0)
+			{
+				out.append(SEPARATOR);
+			}
+			out.append(fields[i]);
+		}
+		out.append('\n');
+	}
+
+	/**
+	 * 重放已有的日志。崩溃时可能残留不完整的末行，重放前将其截断。
+	 */
+	private void replay() throws IOException
+	{
+		if (!Files.isRegularFile(path))
+		{
+			return;
+		}
+		truncatePartialTail();
+		long start = System.currentTimeMillis();
+		long records = 0;
+		try (BufferedReader reader = new BufferedReader(
+			new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8),
+			IO_BUFFER_SIZE))
+		{
+			String line;
+			while ((line = reader.readLine()) != null)
+			{
+				if (line.length() < 2 || line.charAt(1) != SEPARATOR)
+				{
+					continue;
+				}
+				records++;
+				replayRecord(line);
+			}
+		}
+		log.info("Replayed [{}] crawl journal records from \"{}\" in [{}] ms.",
+			records, path, System.currentTimeMillis() - start);
+	}
+
+	private void replayRecord(String line)
+	{
+		char type = line.charAt(0);
+		int second = line.indexOf(SEPARATOR, 2);
+		String key = second < 0 ? line.substring(2) : line.substring(2, second);
+		String rest = second < 0 ? null : line.substring(second + 1);
+		switch (type)
+		{
+		case 'Q':
+			if (rest != null)
+			{
+				state.traversal(key).discovered.add(rest);
+			}
+			break;
+		case 'R':
+			if (rest != null)
+			{
+				state.traversal(key).results.add(rest);
+			}
+			break;
+		case 'V':
+			if (rest != null)
+			{
+				state.traversal(key).visited.add(rest);
+			}
+			break;
+		case 'C':
+			Set<String> creators = new LinkedHashSet<>();
+			if (rest != null)
+			{
+				creators.addAll(Arrays.asList(rest.split(String.valueOf(SEPARATOR))));
+			}
+			state.creators.put(key, creators);
+			break;
+		case 'D':
+			state.completedPhases.put(key, rest == null ? "" : rest);
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void truncatePartialTail() throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			long size = channel.size();
+			if (size == 0)
+			{
+				return;
+			}
+			ByteBuffer one = ByteBuffer.allocate(1);
+			long end = size;
+			while (end > 0)
+			{
+				one.clear();
+				channel.read(one, end - 1);
+				if (one.get(0) == '\n')
+				{
+					break;
+				}
+				end--;
+			}
+			if (end < size)
+			{
+				log.warn("Truncate [{}] bytes of incomplete record from crawl journal.", size - end);
+				channel.truncate(end);
+			}
+		}
+	}
+
+	/**
+	 * 重放得到的爬取状态。
+	 */
+	public static class State
+	{
+		private final Map<String, TraversalState> traversals = new LinkedHashMap<>();
+		private final Map<String, Set<String>> creators = new LinkedHashMap<>();
+		private final Map<String, String> completedPhases = new LinkedHashMap<>();
+
+		public TraversalState traversal(String scope)
+		{
+			return traversals.computeIfAbsent(scope, k -> new TraversalState());
+		}
+
+		public boolean isCompleted(String phase)
+		{
+			return completedPhases.containsKey(phase);
+		}
+
+		/**
+		 * @return 阶段完成时记录的附加信息，阶段未完成或没有附加信息时返回{@code null}。
+		 */
+		public String getPhaseValue(String phase)
+		{
+			String value = completedPhases.get(phase);
+			return value == null || value.isEmpty() ? null : value;
+		}
+
+		public Map<String, Set<String>> getCreators()
+		{
+			return creators;
+		}
+	}
+
+	/**
+	 * 单个遍历阶段的状态。路径与结果存放于{@link CompactStringSet}，避免日志使堆内存占用翻倍。
+	 */
+	public static class TraversalState
+	{
+		private Set<String> discovered = new CompactStringSet();
+		@Getter
+		private Set<String> visited = new CompactStringSet();
+		@Getter
+		private final Set<String> results = new CompactStringSet();
+
+		/**
+		 * @return 已发现但尚未完成请求的路径。
+		 */
+		public List<String> getPending()
+		{
+			List<String> pending = new ArrayList<>();
+			for (String path : discovered)
+			{
+				if (!visited.contains(path))
+				{
+					pending.add(path);
+				}
+			}
+			return pending;
+		}
+	}
+}
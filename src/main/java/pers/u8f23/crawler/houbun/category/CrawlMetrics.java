@@ -0,0 +1,371 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单次执行的性能指标。
+ * 记录各阶段的耗时、各接口的请求耗时分布、重试次数与退避等待时间、各阶段处理的字节数以及堆内存峰值，
+ * 执行结束后可写出为JSON文件或Prometheus的textfile格式，便于逐日比较。
+ * 除阶段计时外，各方法均可在多个线程中同时调用。
+ *
+ * @author 8f23
+ * @create 2026/10/18-22:10
+ */
+public class CrawlMetrics
+{
+	/** 请求耗时分布的桶上界，以毫秒计。 */
+	private static final long[] LATENCY_BUCKETS = {50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+	private static final String PREFIX = "houbun_crawler_";
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	private final long startTime = System.currentTimeMillis();
+	/** key = 阶段名; value = 阶段开始时间，以纳秒计。 */
+	private final Map<String, Long> runningPhases = new LinkedHashMap<>();
+	/** key = 阶段名; value = 阶段耗时，以毫秒计。 */
+	private final Map<String, Long> phases = new LinkedHashMap<>();
+	private final Map<String, Histogram> latencies = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> failures = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> retries = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> backoffMillis = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> bytes = new ConcurrentHashMap<>();
+
+	public CrawlMetrics()
+	{
+		// 堆内存峰值从本次执行开始统计。
+		heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+	}
+
+	/**
+	 * 开始为阶段计时。同名阶段多次计时的耗时累加。
+	 */
+	public synchronized void beginPhase(String phase)
+	{
+		runningPhases.put(phase, System.nanoTime());
+	}
+
+	/**
+	 * 结束阶段计时。阶段未开始时不做任何事。
+	 */
+	public synchronized void endPhase(String phase)
+	{
+		Long start = runningPhases.remove(phase);
+		if (start != null)
+		{
+			phases.merge(phase, (System.nanoTime() - start) / 1_000_000, Long::sum);
+		}
+	}
+
+	/**
+	 * 记录一次请求。
+	 *
+	 * @param endpoint  接口名。
+	 * @param nanos     请求耗时，以纳秒计。
+	 * @param succeeded 请求是否成功。
+	 */
+	public void recordRequest(String endpoint, long nanos, boolean succeeded)
+	{
+		latencies.computeIfAbsent(endpoint, k -> new Histogram()).record(nanos / 1_000_000);
+		if (!succeeded)
+		{
+			counter(failures, endpoint).incrementAndGet();
+		}
+	}
+
+	/**
+	 * 记录一次重试及其前的等待时间。
+	 */
+	public void recordRetry(String endpoint, long delayMillis)
+	{
+		counter(retries, endpoint).incrementAndGet();
+		counter(backoffMillis, endpoint).addAndGet(delayMillis);
+	}
+
+	/**
+	 * 累加阶段处理的字节数。与同名阶段的耗时相除即为吞吐量。
+	 */
+	public void addBytes(String phase, long count)
+	{
+		counter(bytes, phase).addAndGet(count);
+	}
+
+	/**
+	 * @return 堆内存各区域的峰值用量之和，以字节计。各区域的峰值未必同时出现，因此为实际峰值的上界。
+	 */
+	public long heapPeak()
+	{
+		return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+	}
+
+	/**
+	 * @return 用于报告邮件的摘要。
+	 */
+	public synchronized String summary()
+	{
+		List<String> items = new ArrayList<>();
+		phases.forEach((phase, millis) -> items.add(
+			String.format(Locale.ROOT, "%s %.1f s", phase, millis / 1000.0)));
+		bytes.forEach((phase, count) -> {
+			Long millis = phases.get(phase);
+			if (millis != null && millis > 0)
+			{
+				items.add(String.format(Locale.ROOT, "%s %.2f MB/s",
+					phase, count.get() / 1048576.0 / (millis / 1000.0)));
+			}
+		});
+		new TreeMap<>(latencies).forEach((endpoint, histogram) -> items.add(String.format(
+			Locale.ROOT,
+			"%s %d requests, avg %d ms, max %d ms, backoff %.1f s",
+			endpoint,
+			histogram.getCount(),
+			histogram.getCount() == 0 ? 0 : histogram.getSum() / histogram.getCount(),
+			histogram.getMax(),
+			counter(backoffMillis, endpoint).get() / 1000.0
+		)));
+		items.add(String.format(Locale.ROOT, "heap peak %.1f MB", heapPeak() / 1048576.0));
+		return String.join("; ", items);
+	}
+
+	/**
+	 * 以JSON格式写出指标。
+	 */
+	public void writeJson(Path path) throws IOException
+	{
+		Snapshot snapshot = snapshot();
+		writeAtomically(path, writer -> GSON.toJson(snapshot, writer));
+	}
+
+	/**
+	 * 以Prometheus的textfile格式写出指标，供node_exporter的textfile收集器读取。
+	 */
+	public void writePrometheus(Path path) throws IOException
+	{
+		Snapshot snapshot = snapshot();
+		StringBuilder sb = new StringBuilder();
+		header(sb, "run_timestamp_seconds", "gauge", "Start time of the crawl.");
+		sample(sb, "run_timestamp_seconds", null, null, snapshot.startTime / 1000.0);
+		header(sb, "phase_duration_seconds", "gauge", "Wall time of each crawl phase.");
+		snapshot.phases.forEach((phase, millis) ->
+			sample(sb, "phase_duration_seconds", "phase", phase, millis / 1000.0));
+		header(sb, "request_duration_seconds", "histogram", "Latency of each request attempt.");
+		snapshot.requests.forEach((endpoint, request) -> {
+			long cumulative = 0;
+			for (int i = 0; i < LATENCY_BUCKETS.length; i++)
+			{
+				cumulative += request.buckets[i];
+				bucket(sb, endpoint, String.valueOf(LATENCY_BUCKETS[i] / 1000.0), cumulative);
+			}
+			bucket(sb, endpoint, "+Inf", request.count);
+			sample(sb, "request_duration_seconds_sum", "endpoint", endpoint, request.sumMillis / 1000.0);
+			sample(sb, "request_duration_seconds_count", "endpoint", endpoint, request.count);
+		});
+		header(sb, "request_failures_total", "counter", "Failed request attempts.");
+		snapshot.requests.forEach((endpoint, request) ->
+			sample(sb, "request_failures_total", "endpoint", endpoint, request.failures));
+		header(sb, "request_retries_total", "counter", "Retries scheduled by the retry policy.");
+		snapshot.requests.forEach((endpoint, request) ->
+			sample(sb, "request_retries_total", "endpoint", endpoint, request.retries));
+		header(sb, "request_backoff_seconds_total", "counter", "Time spent waiting before retries.");
+		snapshot.requests.forEach((endpoint, request) ->
+			sample(sb, "request_backoff_seconds_total", "endpoint", endpoint, request.backoffMillis / 1000.0));
+		header(sb, "phase_bytes_total", "counter", "Bytes processed by each phase.");
+		snapshot.bytes.forEach((phase, count) -> sample(sb, "phase_bytes_total", "phase", phase, count));
+		header(sb, "phase_throughput_bytes_per_second", "gauge", "Bytes processed per second of phase wall time.");
+		snapshot.throughput.forEach((phase, rate) ->
+			sample(sb, "phase_throughput_bytes_per_second", "phase", phase, rate));
+		header(sb, "heap_peak_bytes", "gauge", "Sum of the peak usage of all heap pools.");
+		sample(sb, "heap_peak_bytes", null, null, snapshot.heapPeakBytes);
+		writeAtomically(path, writer -> writer.write(sb.toString()));
+	}
+
+	private synchronized Snapshot snapshot()
+	{
+		Snapshot snapshot = new Snapshot();
+		snapshot.startTime = startTime;
+		snapshot.phases = new LinkedHashMap<>(phases);
+		Map<String, RequestSnapshot> requests = new TreeMap<>();
+		latencies.forEach((endpoint, histogram) -> {
+			RequestSnapshot request = new RequestSnapshot();
+			request.count = histogram.getCount();
+			request.sumMillis = histogram.getSum();
+			request.maxMillis = histogram.getMax();
+			request.buckets = histogram.buckets();
+			request.failures = counter(failures, endpoint).get();
+			request.retries = counter(retries, endpoint).get();
+			request.backoffMillis = counter(backoffMillis, endpoint).get();
+			requests.put(endpoint, request);
+		});
+		snapshot.requests = requests;
+		snapshot.bytes = new TreeMap<>();
+		snapshot.throughput = new TreeMap<>();
+		bytes.forEach((phase, count) -> {
+			snapshot.bytes.put(phase, count.get());
+			Long millis = phases.get(phase);
+			if (millis != null && millis > 0)
+			{
+				snapshot.throughput.put(phase, count.get() * 1000.0 / millis);
+			}
+		});
+		snapshot.heapPeakBytes = heapPeak();
+		return snapshot;
+	}
+
+	private static void header(StringBuilder sb, String name, String type, String help)
+	{
+		sb.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+		sb.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+	}
+
+	private static void sample(StringBuilder sb, String name, String label, String value, double sample)
+	{
+		sb.append(PREFIX).append(name);
+		if (label != null)
+		{
+			sb.append('{').append(label).append("=\"").append(escape(value)).append("\"}");
+		}
+		sb.append(' ').append(sample).append('\n');
+	}
+
+	private static void bucket(StringBuilder sb, String endpoint, String upperBound, long cumulative)
+	{
+		sb.append(PREFIX).append("request_duration_seconds_bucket{endpoint=\"").append(escape(endpoint))
+			.append("\",le=\"").append(upperBound).append("\"} ").append(cumulative).append('\n');
+	}
+
+	private static String escape(String value)
+	{
+		return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+	}
+
+	private static List<MemoryPoolMXBean> heapPools()
+	{
+		List<MemoryPoolMXBean> result = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+		{
+			if (pool.getType() == MemoryType.HEAP && pool.isValid())
+			{
+				result.add(pool);
+			}
+		}
+		return result;
+	}
+
+	private static AtomicLong counter(Map<String, AtomicLong> counters, String key)
+	{
+		return counters.computeIfAbsent(key, k -> new AtomicLong());
+	}
+
+	@FunctionalInterface
+	private interface WriteAction
+	{
+		void write(Writer writer) throws IOException;
+	}
+
+	private static void writeAtomically(Path path, WriteAction action) throws IOException
+	{
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8))
+		{
+			action.write(writer);
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * 固定分桶的耗时分布，以毫秒计。
+	 */
+	private static class Histogram
+	{
+		private final AtomicLongArray counts = new AtomicLongArray(LATENCY_BUCKETS.length);
+		private final AtomicLong count = new AtomicLong();
+		private final AtomicLong sum = new AtomicLong();
+		private final AtomicLong max = new AtomicLong();
+
+		void record(long millis)
+		{
+			for (int i = 0; i < LATENCY_BUCKETS.length; i++)
+			{
+				if (millis <= LATENCY_BUCKETS[i])
+				{
+					counts.incrementAndGet(i);
+					break;
+				}
+			}
+			count.incrementAndGet();
+			sum.addAndGet(millis);
+			max.accumulateAndGet(millis, Math::max);
+		}
+
+		long getCount()
+		{
+			return count.get();
+		}
+
+		long getSum()
+		{
+			return sum.get();
+		}
+
+		long getMax()
+		{
+			return max.get();
+		}
+
+		/**
+		 * @return 落入各桶的请求数，超出最后一个桶的请求不计入。
+		 */
+		long[] buckets()
+		{
+			long[] result = new long[LATENCY_BUCKETS.length];
+			for (int i = 0; i < result.length; i++)
+			{
+				result[i] = counts.get(i);
+			}
+			return result;
+		}
+	}
+
+	private static class Snapshot
+	{
+		private long startTime;
+		/** key = 阶段名; value = 耗时，以毫秒计。 */
+		private Map<String, Long> phases;
+		/** key = 接口名。 */
+		private Map<String, RequestSnapshot> requests;
+		/** key = 阶段名; value = 处理的字节数。 */
+		private Map<String, Long> bytes;
+		/** key = 阶段名; value = 每秒处理的字节数。 */
+		private Map<String, Double> throughput;
+		private long heapPeakBytes;
+	}
+
+	private static class RequestSnapshot
+	{
+		private long count;
+		private long sumMillis;
+		private long maxMillis;
+		/** 落入各桶的请求数，桶上界见{@link CrawlMetrics#LATENCY_BUCKETS}。 */
+		private long[] buckets;
+		private long failures;
+		private long retries;
+		private long backoffMillis;
+	}
+}
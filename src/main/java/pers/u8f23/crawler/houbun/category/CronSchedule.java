@@ -0,0 +1,164 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * 五段式cron表达式，依次为分（0-59）、时（0-23）、日（1-31）、月（1-12）、星期（0-7，0与7均为星期日）。
+ * 每段支持{@code *}、单值、{@code a-b}范围、{@code /n}步长以及逗号分隔的列表。
+ * 与传统cron相同，日与星期同时受限时，满足其一即可。
+ *
+ * @author 8f23
+ * @create 2026/10/19-01:15
+ */
+public class CronSchedule
+{
+	/** 查找下次执行时间的范围上限，超出时视作表达式永远不会触发。 */
+	private static final int MAX_SEARCH_YEARS = 5;
+
+	private final String expression;
+	private final BitSet minutes;
+	private final BitSet hours;
+	private final BitSet days;
+	private final BitSet months;
+	private final BitSet weekdays;
+	private final boolean anyDay;
+	private final boolean anyWeekday;
+
+	private CronSchedule(String expression, String[] fields)
+	{
+		this.expression = expression;
+		this.minutes = parseField(fields[0], 0, 59);
+		this.hours = parseField(fields[1], 0, 23);
+		this.days = parseField(fields[2], 1, 31);
+		this.months = parseField(fields[3], 1, 12);
+		this.weekdays = parseField(fields[4], 0, 7);
+		// 星期日可写作0或7。
+		if (weekdays.get(7))
+		{
+			weekdays.set(0);
+		}
+		this.anyDay = fields[2].equals("*");
+		this.anyWeekday = fields[4].equals("*");
+	}
+
+	/**
+	 * @throws IllegalArgumentException 表达式格式错误。
+	 */
+	public static CronSchedule parse(String expression)
+	{
+		String[] fields = expression.trim().split("\\s+");
+		if (fields.length != 5)
+		{
+			throw new IllegalArgumentException("Cron expression must have 5 fields: " + expression);
+		}
+		return new CronSchedule(expression, fields);
+	}
+
+	/**
+	 * @return {@code after}之后（不含）的下次执行时间，精确到分钟。
+	 * @throws IllegalStateException 表达式在可预见的范围内不会触发，例如{@code 0 0 30 2 *}。
+	 */
+	public ZonedDateTime next(ZonedDateTime after)
+	{
+		ZonedDateTime limit = after.plusYears(MAX_SEARCH_YEARS);
+		ZonedDateTime time = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+		while (time.isBefore(limit))
+		{
+			if (!months.get(time.getMonthValue()))
+			{
+				time = time.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+				continue;
+			}
+			if (!matchesDay(time))
+			{
+				time = time.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+				continue;
+			}
+			if (!hours.get(time.getHour()))
+			{
+				time = time.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+				continue;
+			}
+			if (!minutes.get(time.getMinute()))
+			{
+				time = time.plusMinutes(1);
+				continue;
+			}
+			return time;
+		}
+		throw new IllegalStateException("Cron expression never fires: " + expression);
+	}
+
+	private boolean matchesDay(ZonedDateTime time)
+	{
+		boolean day = days.get(time.getDayOfMonth());
+		// DayOfWeek中星期日为7。
+		boolean weekday = weekdays.get(time.getDayOfWeek().getValue() % 7);
+		if (anyDay || anyWeekday)
+		{
+			return day && weekday;
+		}
+		return day || weekday;
+	}
+
+	private static BitSet parseField(String field, int min, int max)
+	{
+		BitSet result = new BitSet(max + 1);
+		for (String part : field.split(","))
+		{
+			int step = 1;
+			int slash = part.indexOf('/');
+			if (slash >= 0)
+			{
+				step = parseNumber(part.substring(slash + 1), 1, Integer.MAX_VALUE, field);
+				part = part.substring(0, slash);
+			}
+			int from;
+			int to;
+			if (part.equals("*"))
+			{
+				from = min;
+				to = max;
+			}
+			else
+			{
+				int dash = part.indexOf('-');
+				from = parseNumber(dash >= 0 ? part.substring(0, dash) : part, min, max, field);
+				// 单值带步长时，与传统cron相同，取至最大值。
+				to = dash >= 0
+					? parseNumber(part.substring(dash + 1), from, max, field)
+					: slash >= 0 ? max : from;
+			}
+			for (int i = from; i <= to; i += step)
+			{
+				result.set(i);
+			}
+		}
+		return result;
+	}
+
+	private static int parseNumber(String text, int min, int max, String field)
+	{
+		try
+		{
+			int value = Integer.parseInt(text);
+			if (value >= min && value <= max)
+			{
+				return value;
+			}
+		}
+		catch (NumberFormatException ignored)
+		{
+			// 统一在下方抛出。
+		}
+		throw new IllegalArgumentException("Invalid cron field: " + field);
+	}
+
+	@Override
+	public String toString()
+	{
+		return expression;
+	}
+}
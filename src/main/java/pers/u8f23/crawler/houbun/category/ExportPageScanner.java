@@ -0,0 +1,223 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 导出文档的页面扫描器。
+ * 逐字节扫描导出文档中的{@code <page>}、{@code <title>}与{@code </page>}标签，报告各页面的位置与标题；
+ * 同时记录各页面{@code <revision>}中的修订版本号，多个修订版本时取最后一个。
+ * 导出文档正文中的{@code <}均被转义，因此扫描时无需解析完整的XML。
+ *
+ * @author 8f23
+ * @create 2026/10/18-18:30
+ */
+public class ExportPageScanner
+{
+	private static final int MAX_TAG_NAME_LENGTH = 12;
+
+	/**
+	 * 扫描结果的接收方。
+	 */
+	public interface Listener
+	{
+		/**
+		 * @param start {@code <page>}标签的起始位置。
+		 */
+		default void onPageStart(long start)
+		{
+		}
+
+		/**
+		 * 页面包含修订版本号时，在{@link #onPageEnd}之前执行此方法。
+		 */
+		default void onPageRevision(String title, long revisionId)
+		{
+		}
+
+		/**
+		 * @param start {@code <page>}标签的起始位置。
+		 * @param end   {@code </page>}标签之后的位置。
+		 */
+		void onPageEnd(String title, long start, long end);
+	}
+
+	private final Listener listener;
+	private final StringBuilder tagName = new StringBuilder();
+	private final ByteArrayOutputStream titleBytes = new ByteArrayOutputStream();
+	private long position;
+	private boolean inTagName;
+	private long tagStart;
+	private boolean capturingTitle;
+	private boolean capturingRevisionId;
+	/** 是否处于{@code <revision>}内且尚未读到其{@code <id>}，{@code <contributor>}中的{@code <id>}不是修订版本号。 */
+	private boolean expectingRevisionId;
+	private long pageStart = -1;
+	private String pageTitle;
+	private long pageRevisionId = -1;
+
+	public ExportPageScanner(Listener listener)
+	{
+		this.listener = listener;
+	}
+
+	/**
+	 * @return 已扫描的字节数。
+	 */
+	public long getPosition()
+	{
+		return position;
+	}
+
+	/**
+	 * 扫描下一个字节。
+	 *
+	 * @return 该字节是否为页面的结束位置。
+	 */
+	public boolean scan(byte c)
+	{
+		try
+		{
+			return scanByte(c);
+		}
+		finally
+		{
+			position++;
+		}
+	}
+
+	private boolean scanByte(byte c)
+	{
+		if (inTagName)
+		{
+			if (c == '/' && tagName.length() == 0 || isNameChar(c))
+			{
+				if (tagName.length() < MAX_TAG_NAME_LENGTH)
+				{
+					tagName.append((char) c);
+				}
+				return false;
+			}
+			inTagName = false;
+			return onTag(tagName.toString(), c == '>');
+		}
+		if (c == '<')
+		{
+			inTagName = true;
+			tagStart = position;
+			tagName.setLength(0);
+			if (capturingTitle)
+			{
+				capturingTitle = false;
+				pageTitle = unescape(new String(titleBytes.toByteArray(), StandardCharsets.UTF_8));
+			}
+			if (capturingRevisionId)
+			{
+				capturingRevisionId = false;
+				pageRevisionId = parseRevisionId(new String(titleBytes.toByteArray(), StandardCharsets.US_ASCII));
+			}
+			return false;
+		}
+		if (capturingTitle || capturingRevisionId)
+		{
+			titleBytes.write(c);
+		}
+		return false;
+	}
+
+	private boolean onTag(String name, boolean closedHere)
+	{
+		switch (name)
+		{
+		case "page":
+			pageStart = tagStart;
+			pageTitle = null;
+			pageRevisionId = -1;
+			listener.onPageStart(pageStart);
+			return false;
+		case "revision":
+			expectingRevisionId = pageStart >= 0 && closedHere;
+			return false;
+		case "contributor":
+		case "/revision":
+			expectingRevisionId = false;
+			return false;
+		case "id":
+			if (expectingRevisionId && closedHere)
+			{
+				expectingRevisionId = false;
+				capturingRevisionId = true;
+				titleBytes.reset();
+			}
+			return false;
+		case "title":
+			if (pageStart >= 0 && pageTitle == null && closedHere)
+			{
+				capturingTitle = true;
+				titleBytes.reset();
+			}
+			return false;
+		case "/page":
+			boolean ended = pageStart >= 0 && pageTitle != null && closedHere;
+			if (ended)
+			{
+				if (pageRevisionId > 0)
+				{
+					listener.onPageRevision(pageTitle, pageRevisionId);
+				}
+				listener.onPageEnd(pageTitle, pageStart, position + 1);
+			}
+			pageStart = -1;
+			pageTitle = null;
+			pageRevisionId = -1;
+			expectingRevisionId = false;
+			return ended;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * 将页面名规范化为导出文档中的形式，用于比对页面名。
+	 * 分类页面链接中的页面名以下划线代替空格，导出文档中的标题则使用空格。
+	 */
+	public static String normalizeTitle(String title)
+	{
+		return title.replace('_', ' ');
+	}
+
+	private static long parseRevisionId(String text)
+	{
+		try
+		{
+			return Long.parseLong(text.trim());
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
+	private static boolean isNameChar(byte c)
+	{
+		return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
+	}
+
+	/**
+	 * 还原导出文档对标题的转义。
+	 */
+	private static String unescape(String text)
+	{
+		if (text.indexOf('&') < 0)
+		{
+			return text;
+		}
+		return text
+			.replace("&lt;", "<")
+			.replace("&gt;", ">")
+			.replace("&quot;", "\"")
+			.replace("&#039;", "'")
+			.replace("&#39;", "'")
+			.replace("&amp;", "&");
+	}
+}
@@ -0,0 +1,76 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 收集导出文档中各页面实际导出的修订版本号。
+ * 镜像站可能落后于本站，增量备份的状态须记录实际导出的版本，而非导出前从本站查询到的版本。
+ *
+ * @author 8f23
+ * @create 2026/10/19-09:30
+ */
+public class ExportRevisionCollector extends OutputStream
+{
+	/** key = 规范化的页面名; value = 修订版本号。 */
+	private final Map<String, Long> revisions = new HashMap<>();
+	private final ExportPageScanner scanner = new ExportPageScanner(new ExportPageScanner.Listener()
+	{
+		@Override
+		public void onPageRevision(String title, long revisionId)
+		{
+			revisions.put(ExportPageScanner.normalizeTitle(title), revisionId);
+		}
+
+		@Override
+		public void onPageEnd(String title, long start, long end)
+		{
+		}
+	});
+
+	/**
+	 * 扫描已下载的导出文件。
+	 */
+	public static Map<String, Long> collect(Path path, int bufferSize) throws IOException
+	{
+		ExportRevisionCollector collector = new ExportRevisionCollector();
+		try (InputStream is = Files.newInputStream(path))
+		{
+			byte[] buffer = new byte[Math.max(1024, bufferSize)];
+			int i;
+			while ((i = is.read(buffer)) >= 0)
+			{
+				collector.write(buffer, 0, i);
+			}
+		}
+		return collector.getRevisions();
+	}
+
+	@Override
+	public void write(int b)
+	{
+		scanner.scan((byte) b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len)
+	{
+		for (int i = off; i < off + len; i++)
+		{
+			scanner.scan(b[i]);
+		}
+	}
+
+	/**
+	 * @return key = 规范化的页面名; value = 修订版本号。
+	 */
+	public Map<String, Long> getRevisions()
+	{
+		return revisions;
+	}
+}
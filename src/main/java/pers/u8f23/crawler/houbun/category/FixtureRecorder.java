@@ -0,0 +1,77 @@
+package pers.u8f23.crawler.houbun.category;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.Okio;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 录制响应的拦截器，应当位于所有应用拦截器之前，以便只录制重试后的最终响应。
+ * 只录制200与404响应，其余响应视作暂时的错误，不覆盖已有的样本。
+ * 响应体先完整写入样本文件，再从文件中交给下游读取。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:05
+ */
+public class FixtureRecorder implements Interceptor
+{
+	private final FixtureStore store;
+
+	public FixtureRecorder(FixtureStore store)
+	{
+		this.store = store;
+	}
+
+	@Override
+	public Response intercept(Chain chain) throws IOException
+	{
+		Request request = chain.request();
+		String key = FixtureStore.key(request.method(), pathAndQuery(request.url()), requestBody(request));
+		Response response = chain.proceed(request);
+		ResponseBody body = response.body();
+		if (body == null || (response.code() != 200 && response.code() != 404))
+		{
+			return response;
+		}
+		MediaType contentType = body.contentType();
+		Path file;
+		try (ResponseBody ignored = body)
+		{
+			file = store.save(
+				key,
+				response.code(),
+				contentType == null ? null : contentType.toString(),
+				body.byteStream()
+			);
+		}
+		return response.newBuilder()
+			.body(ResponseBody.create(Okio.buffer(Okio.source(file)), contentType, Files.size(file)))
+			.build();
+	}
+
+	static String pathAndQuery(HttpUrl url)
+	{
+		return url.encodedQuery() == null
+			? url.encodedPath()
+			: url.encodedPath() + "?" + url.encodedQuery();
+	}
+
+	private static byte[] requestBody(Request request) throws IOException
+	{
+		if (request.body() == null)
+		{
+			return new byte[0];
+		}
+		Buffer buffer = new Buffer();
+		request.body().writeTo(buffer);
+		return buffer.readByteArray();
+	}
+}
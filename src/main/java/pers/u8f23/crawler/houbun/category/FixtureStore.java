@@ -0,0 +1,162 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 录制的响应样本。
+ * 每个请求以请求方法、路径与查询参数，以及请求体的摘要作为键，不含主机名与{@code maxlag}参数，
+ * 因此两个站点的响应可以由同一个替身服务器回放。
+ * 每个样本由键的SHA-256命名的两个文件组成：{@code .json}记录状态码与内容类型，{@code .body}为响应体。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:05
+ */
+@Slf4j
+public class FixtureStore
+{
+	private static final String META_SUFFIX = ".json";
+	private static final String BODY_SUFFIX = ".body";
+	private static final Gson GSON = new Gson();
+
+	private final Path directory;
+
+	public FixtureStore(Path directory) throws IOException
+	{
+		this.directory = Files.createDirectories(directory);
+	}
+
+	/**
+	 * 键中不含{@code maxlag}参数：该参数由{@link AdaptivePacer}在录制之后附加，且是否附加取决于配置，
+	 * 录制与回放时看到的请求可能不同。
+	 *
+	 * @param pathAndQuery 编码后的路径与查询参数。
+	 * @param body         请求体，没有时为空数组。
+	 */
+	public static String key(String method, String pathAndQuery, byte[] body)
+	{
+		String request = method + " " + withoutParameter(pathAndQuery, "maxlag");
+		return body.length == 0
+			? request
+			: request + " " + sha256(body);
+	}
+
+	/**
+	 * 去除查询参数中的{@code name}参数。
+	 */
+	private static String withoutParameter(String pathAndQuery, String name)
+	{
+		int queryStart = pathAndQuery.indexOf('?');
+		if (queryStart < 0)
+		{
+			return pathAndQuery;
+		}
+		StringBuilder builder = new StringBuilder(pathAndQuery.length());
+		builder.append(pathAndQuery, 0, queryStart);
+		char separator = '?';
+		for (String parameter : pathAndQuery.substring(queryStart + 1).split("&"))
+		{
+			if (parameter.isEmpty() || parameter.equals(name) || parameter.startsWith(name + "="))
+			{
+				continue;
+			}
+			builder.append(separator).append(parameter);
+			separator = '&';
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * @return 样本，不存在时返回{@code null}。
+	 */
+	public Fixture find(String key)
+	{
+		String name = sha256(key.getBytes(StandardCharsets.UTF_8));
+		Path meta = directory.resolve(name + META_SUFFIX);
+		Path body = directory.resolve(name + BODY_SUFFIX);
+		if (!Files.isRegularFile(meta) || !Files.isRegularFile(body))
+		{
+			return null;
+		}
+		try (Reader reader = Files.newBufferedReader(meta, StandardCharsets.UTF_8))
+		{
+			Fixture fixture = GSON.fromJson(reader, Fixture.class);
+			fixture.body = body;
+			return fixture;
+		}
+		catch (Exception e)
+		{
+			log.warn("Failed to read fixture \"{}\".", meta, e);
+			return null;
+		}
+	}
+
+	/**
+	 * 保存样本，已有的同名样本将被替换。
+	 *
+	 * @return 响应体文件。
+	 */
+	public Path save(String key, int code, String contentType, InputStream body) throws IOException
+	{
+		String name = sha256(key.getBytes(StandardCharsets.UTF_8));
+		Path bodyFile = directory.resolve(name + BODY_SUFFIX);
+		Path temp = directory.resolve(name + BODY_SUFFIX + ".tmp");
+		Files.copy(body, temp, StandardCopyOption.REPLACE_EXISTING);
+		Files.move(temp, bodyFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		Fixture fixture = new Fixture();
+		fixture.key = key;
+		fixture.code = code;
+		fixture.contentType = contentType;
+		Path metaFile = directory.resolve(name + META_SUFFIX);
+		Path metaTemp = directory.resolve(name + META_SUFFIX + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(metaTemp, StandardCharsets.UTF_8))
+		{
+			GSON.toJson(fixture, writer);
+		}
+		Files.move(metaTemp, metaFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return bodyFile;
+	}
+
+	private static String sha256(byte[] data)
+	{
+		try
+		{
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+			StringBuilder sb = new StringBuilder(digest.length * 2);
+			for (byte b : digest)
+			{
+				sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * 单个响应样本。
+	 */
+	@Getter
+	public static class Fixture
+	{
+		private String key;
+		private int code;
+		private String contentType;
+		private transient Path body;
+	}
+}
@@ -3,11 +3,16 @@ package pers.u8f23.crawler.houbun.category;
 import io.reactivex.rxjava3.core.Single;
 import okhttp3.ResponseBody;
 import pers.u8f23.crawler.houbun.category.response.ApiBaseResponse;
+import pers.u8f23.crawler.houbun.category.response.CategoryMembersQuery;
+import pers.u8f23.crawler.houbun.category.response.CreatorsResponse;
 import pers.u8f23.crawler.houbun.category.response.Query;
 import retrofit2.Response;
 import retrofit2.http.GET;
+import retrofit2.http.QueryMap;
 import retrofit2.http.Url;
 
+import java.util.Map;
+
 /**
  * @author 8f23
  * @create 2023/7/2-17:09
@@ -18,8 +23,42 @@ public interface HomeSiteService
 	Single<Response<ResponseBody>> get(@retrofit2.http.Query ("title") String pageTitle);
 	@GET
 	Single<Response<ResponseBody>> getUrl(@Url String url);
-	@GET ("/api.php?action=query&prop=categories&format=json")
-	Single<Response<ApiBaseResponse<Query>>> getCategories(@retrofit2.http.Query ("titles") String pageTitle);
+	/**
+	 * 批量请求页面所属分类，响应被流式解码为各作品的作者名。
+	 *
+	 * @param pageTitles     以{@code |}连接的页面标题，至多50个。
+	 * @param continueParams 上一次响应中的{@code continue}参数，首次请求时为空。
+	 */
+	@GET ("/api.php?action=query&prop=categories&format=json&cllimit=max")
+	Single<Response<CreatorsResponse>> getCategories(
+		@retrofit2.http.Query ("titles") String pageTitles,
+		@QueryMap Map<String, String> continueParams);
+	/**
+	 * 批量请求页面信息，包括最新修订版本号。
+	 *
+	 * @param pageTitles 以{@code |}连接的页面标题，至多50个。
+	 */
+	@GET ("/api.php?action=query&prop=info&format=json")
+	Single<Response<ApiBaseResponse<Query>>> getPageInfo(
+		@retrofit2.http.Query ("titles") String pageTitles);
+	/**
+	 * 批量请求分类的成员数。
+	 *
+	 * @param categoryTitles 以{@code |}连接的分类名，至多50个。
+	 */
+	@GET ("/api.php?action=query&prop=categoryinfo&format=json")
+	Single<Response<ApiBaseResponse<Query>>> getCategoryInfo(
+		@retrofit2.http.Query ("titles") String categoryTitles);
+	/**
+	 * 请求分类下的子分类与页面。
+	 *
+	 * @param categoryTitle  分类名，形如{@code Category:xxx}。
+	 * @param continueParams 上一次响应中的{@code continue}参数，首次请求时为空。
+	 */
+	@GET ("/api.php?action=query&list=categorymembers&format=json&cmlimit=max&cmtype=page%7Csubcat")
+	Single<Response<ApiBaseResponse<CategoryMembersQuery>>> getCategoryMembers(
+		@retrofit2.http.Query ("cmtitle") String categoryTitle,
+		@QueryMap Map<String, String> continueParams);
 
 	static HomeSiteService getInstance()
 	{
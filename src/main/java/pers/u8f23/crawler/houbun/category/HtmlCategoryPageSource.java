@@ -0,0 +1,84 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Single;
+import okhttp3.ResponseBody;
+import pers.u8f23.crawler.houbun.category.config.CategoryParserType;
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+import retrofit2.Response;
+
+import java.util.function.Function;
+
+/**
+ * 基于渲染后分类页面的数据来源，分页路径形如{@code /index.php?title=Category:xxx&pagefrom=...}。
+ *
+ * @author 8f23
+ * @create 2026/10/18-11:25
+ */
+public class HtmlCategoryPageSource implements CategoryPageSource
+{
+	private final HomeSiteService service;
+	private final Function<Response<ResponseBody>, CategoryPageParsed> parser;
+	private final ParsedPageCache parsedCache;
+
+	/**
+	 * @param parsedCache 解析结果缓存，为{@code null}时每次都重新解析。
+	 */
+	public HtmlCategoryPageSource(
+		HomeSiteService service,
+		CategoryParserType parserType,
+		ParsedPageCache parsedCache)
+	{
+		this.service = service;
+		this.parser = parserType == CategoryParserType.STREAMING
+			? CategoryPageParsed::parseStreaming
+			: CategoryPageParsed::parse;
+		this.parsedCache = parsedCache;
+	}
+
+	@Override
+	public Single<CategoryPageParsed> request(String path)
+	{
+		return (path.startsWith("Category:")
+			? service.get(path)
+			: service.getUrl(path))
+			.map(this::parse);
+	}
+
+	/**
+	 * 解析响应。响应体来自HTTP缓存（新鲜命中或304）且验证标识未变时，直接复用此前的解析结果。
+	 */
+	private CategoryPageParsed parse(Response<ResponseBody> rawResponse)
+	{
+		if (parsedCache == null || rawResponse == null || !rawResponse.isSuccessful())
+		{
+			return parser.apply(rawResponse);
+		}
+		okhttp3.Response raw = rawResponse.raw();
+		String url = raw.request().url().toString();
+		String validator = raw.header("ETag", raw.header("Last-Modified"));
+		if (validator == null)
+		{
+			return parser.apply(rawResponse);
+		}
+		okhttp3.Response networkResponse = raw.networkResponse();
+		boolean fromCache = raw.cacheResponse() != null
+		                    && (networkResponse == null || networkResponse.code() == 304);
+		if (fromCache)
+		{
+			CategoryPageParsed cached = parsedCache.get(url, validator);
+			if (cached != null)
+			{
+				ResponseBody body = rawResponse.body();
+				if (body != null)
+				{
+					body.close();
+				}
+				HttpUtils.HOME_SITE_CACHE_STATS.recordParsedReuse();
+				return cached;
+			}
+		}
+		CategoryPageParsed parsed = parser.apply(rawResponse);
+		parsedCache.put(url, validator, parsed);
+		return parsed;
+	}
+}
@@ -0,0 +1,166 @@
+package pers.u8f23.crawler.houbun.category;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP缓存的统计拦截器。
+ * 根据最终响应的{@code cacheResponse}与{@code networkResponse}区分以下情况：
+ * <ul>
+ *     <li>命中：缓存仍然新鲜，未发起网络请求；</li>
+ *     <li>验证命中：发起条件请求，服务器返回304，响应体来自缓存；</li>
+ *     <li>验证失效：发起条件请求，服务器返回新的内容；</li>
+ *     <li>未命中：没有可用的缓存。</li>
+ * </ul>
+ * 来自缓存的响应体字节数计入节省的流量，各类请求的耗时分别累计。
+ *
+ * @author 8f23
+ * @create 2026/10/18-14:02
+ */
+public class HttpCacheStats implements Interceptor
+{
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong revalidated = new AtomicLong();
+	private final AtomicLong revalidationChanged = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong bytesFromCache = new AtomicLong();
+	private final AtomicLong revalidatedMillis = new AtomicLong();
+	private final AtomicLong networkMillis = new AtomicLong();
+	private final AtomicLong parsedReuses = new AtomicLong();
+
+	@Override
+	public Response intercept(Chain chain) throws IOException
+	{
+		long start = System.currentTimeMillis();
+		Response response = chain.proceed(chain.request());
+		long elapsed = System.currentTimeMillis() - start;
+		Response cacheResponse = response.cacheResponse();
+		Response networkResponse = response.networkResponse();
+		if (cacheResponse == null)
+		{
+			misses.incrementAndGet();
+			networkMillis.addAndGet(elapsed);
+			return response;
+		}
+		if (networkResponse == null)
+		{
+			hits.incrementAndGet();
+		}
+		else if (networkResponse.code() == 304)
+		{
+			revalidated.incrementAndGet();
+			revalidatedMillis.addAndGet(elapsed);
+		}
+		else
+		{
+			revalidationChanged.incrementAndGet();
+			networkMillis.addAndGet(elapsed);
+			return response;
+		}
+		ResponseBody body = response.body();
+		if (body == null)
+		{
+			return response;
+		}
+		ForwardingSource counting = new ForwardingSource(body.source())
+		{
+			@Override
+			public long read(Buffer sink, long byteCount) throws IOException
+			{
+				long read = super.read(sink, byteCount);
+				if (read > 0)
+				{
+					bytesFromCache.addAndGet(read);
+				}
+				return read;
+			}
+		};
+		return response.newBuilder()
+			.body(ResponseBody.create(
+				Okio.buffer(counting),
+				body.contentType(),
+				body.contentLength()
+			))
+			.build();
+	}
+
+	/**
+	 * 记录一次复用已解析结果的情况。
+	 */
+	public void recordParsedReuse()
+	{
+		parsedReuses.incrementAndGet();
+	}
+
+	public long getHits()
+	{
+		return hits.get();
+	}
+
+	public long getRevalidated()
+	{
+		return revalidated.get();
+	}
+
+	public long getRevalidationChanged()
+	{
+		return revalidationChanged.get();
+	}
+
+	public long getMisses()
+	{
+		return misses.get();
+	}
+
+	public long getBytesFromCache()
+	{
+		return bytesFromCache.get();
+	}
+
+	public long getParsedReuses()
+	{
+		return parsedReuses.get();
+	}
+
+	/**
+	 * 清零全部统计。守护进程模式下每次执行开始时调用，使统计只反映本次执行。
+	 */
+	public void reset()
+	{
+		hits.set(0);
+		revalidated.set(0);
+		revalidationChanged.set(0);
+		misses.set(0);
+		bytesFromCache.set(0);
+		revalidatedMillis.set(0);
+		networkMillis.set(0);
+		parsedReuses.set(0);
+	}
+
+	/**
+	 * @return 可读的统计摘要。
+	 */
+	public String summary()
+	{
+		long networkRequests = misses.get() + revalidationChanged.get();
+		long avgNetworkMillis = networkRequests == 0 ? 0 : networkMillis.get() / networkRequests;
+		long avgRevalidatedMillis = revalidated.get() == 0
+			? 0
+			: revalidatedMillis.get() / revalidated.get();
+		return String.format(
+			"hits=%d, revalidated(304)=%d, revalidation changed=%d, misses=%d, "
+			+ "bytes from cache=%d, parsed results reused=%d, "
+			+ "avg full request=%d ms, avg revalidation=%d ms",
+			hits.get(), revalidated.get(), revalidationChanged.get(), misses.get(),
+			bytesFromCache.get(), parsedReuses.get(),
+			avgNetworkMillis, avgRevalidatedMillis
+		);
+	}
+}
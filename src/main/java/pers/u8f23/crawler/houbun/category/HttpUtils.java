@@ -1,11 +1,18 @@
 package pers.u8f23.crawler.houbun.category;
 
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
+import pers.u8f23.crawler.houbun.category.config.AdaptivePacingConfig;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava3.RxJava3CallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+import java.io.File;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -15,12 +22,24 @@ import java.util.concurrent.TimeUnit;
 public class HttpUtils
 {
 	public static final int HOME_SITE_TIME_OUT = 3;
+	/** 本站的默认地址，可通过{@link #setSiteUrls}替换。 */
 	public static final String HOME_SITE_BASE_URL = "https://zh.moegirl.org.cn";
+	/** 镜像站页面导出服务的默认地址，可通过{@link #setSiteUrls}替换。 */
 	public static final String MIRROR_SITE_BACKUP_URL =
 		"https://moegirl.uk/Special:%E5%AF%BC%E5%87%BA%E9%A1%B5%E9%9D%A2";
 
-	private static final Retrofit HOME_SITE_SERVICE_CREATOR;
-	public static final OkHttpClient MIRROR_SITE_CLIENT;
+	/** 本站请求的全局限流器，默认不限速。 */
+	public static final RateLimiter HOME_SITE_RATE_LIMITER = new RateLimiter(0, 1);
+	/** 本站请求的缓存统计，仅在启用缓存后计数。 */
+	public static final HttpCacheStats HOME_SITE_CACHE_STATS = new HttpCacheStats();
+
+	/** 本站请求的自适应节奏控制，启用前为空。 */
+	private static volatile AdaptivePacer homeSitePacer;
+	private static OkHttpClient homeSiteClient;
+	private static Retrofit homeSiteServiceCreator;
+	private static OkHttpClient mirrorSiteClient;
+	private static String homeSiteBaseUrl = HOME_SITE_BASE_URL;
+	private static String mirrorSiteBackupUrl = MIRROR_SITE_BACKUP_URL;
 
 	static
 	{
@@ -28,24 +47,141 @@ public class HttpUtils
 		HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
 		logging.setLevel(HttpLoggingInterceptor.Level.NONE);
 
-		OkHttpClient homeSiteClient = new OkHttpClient.Builder()
+		// 限流器作为网络拦截器，命中缓存的请求不消耗令牌。
+		homeSiteClient = new OkHttpClient.Builder()
+			.addInterceptor(chain -> {
+				AdaptivePacer pacer = homeSitePacer;
+				return pacer != null ? pacer.intercept(chain) : chain.proceed(chain.request());
+			})
+			.addNetworkInterceptor(rateLimitInterceptor(HOME_SITE_RATE_LIMITER))
 			.addInterceptor(logging)
 			.connectTimeout(HOME_SITE_TIME_OUT, TimeUnit.SECONDS)
 			.build();
-		HOME_SITE_SERVICE_CREATOR = new Retrofit.Builder()
+		homeSiteServiceCreator = buildHomeSiteCreator(homeSiteClient);
+
+		mirrorSiteClient = new OkHttpClient.Builder()
+			.addInterceptor(logging)
+			.build();
+	}
+
+	/**
+	 * 为本站请求启用磁盘缓存。缓存过期的响应会携带{@code If-None-Match}/{@code If-Modified-Since}重新验证。
+	 * 须在首次创建本站服务之前调用。
+	 *
+	 * @param directory 缓存目录。
+	 * @param maxSize   缓存大小上限，以字节计。
+	 */
+	public static synchronized void enableHomeSiteCache(File directory, long maxSize)
+	{
+		homeSiteClient = homeSiteClient.newBuilder()
+			.cache(new Cache(directory, maxSize))
+			.addInterceptor(HOME_SITE_CACHE_STATS)
+			.build();
+		homeSiteServiceCreator = buildHomeSiteCreator(homeSiteClient);
+	}
+
+	/**
+	 * 为本站请求启用自适应节奏控制，取代固定的速率上限。
+	 */
+	public static AdaptivePacer enableAdaptivePacing(AdaptivePacingConfig config)
+	{
+		homeSitePacer = new AdaptivePacer(config, HOME_SITE_RATE_LIMITER);
+		return homeSitePacer;
+	}
+
+	/**
+	 * 令两个站点的异步请求在指定的执行器上执行。须在首次创建本站服务之前调用。
+	 */
+	public static synchronized void useDispatcherExecutor(ExecutorService executor)
+	{
+		homeSiteClient = homeSiteClient.newBuilder()
+			.dispatcher(newDispatcher(executor))
+			.build();
+		homeSiteServiceCreator = buildHomeSiteCreator(homeSiteClient);
+		mirrorSiteClient = mirrorSiteClient.newBuilder()
+			.dispatcher(newDispatcher(executor))
+			.build();
+	}
+
+	private static Dispatcher newDispatcher(ExecutorService executor)
+	{
+		Dispatcher dispatcher = new Dispatcher(executor);
+		// 并发数由限流器与调用方控制。
+		dispatcher.setMaxRequests(Integer.MAX_VALUE);
+		dispatcher.setMaxRequestsPerHost(Integer.MAX_VALUE);
+		return dispatcher;
+	}
+
+	/**
+	 * 替换两个站点的地址，用于测试站点或本地的回放服务器。须在首次创建本站服务之前调用。
+	 *
+	 * @param homeSiteBaseUrl     本站地址。
+	 * @param mirrorSiteBackupUrl 镜像站页面导出服务的地址。
+	 */
+	public static synchronized void setSiteUrls(String homeSiteBaseUrl, String mirrorSiteBackupUrl)
+	{
+		HttpUtils.homeSiteBaseUrl = homeSiteBaseUrl;
+		HttpUtils.mirrorSiteBackupUrl = mirrorSiteBackupUrl;
+		homeSiteServiceCreator = buildHomeSiteCreator(homeSiteClient);
+	}
+
+	public static synchronized String getMirrorSiteBackupUrl()
+	{
+		return mirrorSiteBackupUrl;
+	}
+
+	/**
+	 * 在两个站点所有的应用拦截器之前添加拦截器。须在首次创建本站服务之前调用。
+	 */
+	public static synchronized void addOutermostInterceptor(Interceptor interceptor)
+	{
+		OkHttpClient.Builder homeSiteBuilder = homeSiteClient.newBuilder();
+		homeSiteBuilder.interceptors().add(0, interceptor);
+		homeSiteClient = homeSiteBuilder.build();
+		homeSiteServiceCreator = buildHomeSiteCreator(homeSiteClient);
+		OkHttpClient.Builder mirrorSiteBuilder = mirrorSiteClient.newBuilder();
+		mirrorSiteBuilder.interceptors().add(0, interceptor);
+		mirrorSiteClient = mirrorSiteBuilder.build();
+	}
+
+	public static synchronized OkHttpClient getMirrorSiteClient()
+	{
+		return mirrorSiteClient;
+	}
+
+	private static Retrofit buildHomeSiteCreator(OkHttpClient client)
+	{
+		return new Retrofit.Builder()
 			.addConverterFactory(GsonConverterFactory.create())
-			.baseUrl(HOME_SITE_BASE_URL)
+			.baseUrl(homeSiteBaseUrl)
 			.addCallAdapterFactory(RxJava3CallAdapterFactory.create())
-			.client(homeSiteClient)
+			.client(client)
 			.build();
+	}
 
-		MIRROR_SITE_CLIENT = new OkHttpClient.Builder()
-			.addInterceptor(logging)
-			.build();
+	private static Interceptor rateLimitInterceptor(RateLimiter limiter)
+	{
+		return chain -> {
+			AdaptivePacer pacer = homeSitePacer;
+			if (pacer != null)
+			{
+				return pacer.interceptNetwork(chain);
+			}
+			try
+			{
+				limiter.acquire();
+			}
+			catch (InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException("Interrupted while waiting for rate limiter.");
+			}
+			return chain.proceed(chain.request());
+		};
 	}
 
-	public static <S> S buildHomeSiteService(Class<S> clazz)
+	public static synchronized <S> S buildHomeSiteService(Class<S> clazz)
 	{
-		return HOME_SITE_SERVICE_CREATOR.create(clazz);
+		return homeSiteServiceCreator.create(clazz);
 	}
 }
@@ -0,0 +1,235 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.config.IncrementalBackupConfig;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * 增量备份。
+ * 状态文件中记录了上次备份时各页面的最新修订版本号，本次只导出新增或修订版本号发生变化的页面。
+ * 每次备份都会在压缩文件旁生成清单文件，增量备份的清单通过{@code base}指向上一份清单，
+ * 并通过{@code fullBase}指向所依赖的完整备份，从而可以沿清单链恢复任意一次备份时的全部页面。
+ *
+ * @author 8f23
+ * @create 2026/10/18-15:05
+ */
+@Slf4j
+public class IncrementalBackup
+{
+	/** 修订版本号查询失败的页面。 */
+	public static final long UNKNOWN_REVISION = -1;
+	/** 不存在的页面。 */
+	public static final long MISSING_REVISION = 0;
+	public static final String MANIFEST_SUFFIX = ".manifest.json";
+
+	private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+
+	private final IncrementalBackupConfig config;
+	private final State previous;
+
+	private IncrementalBackup(IncrementalBackupConfig config, State previous)
+	{
+		this.config = config;
+		this.previous = previous;
+	}
+
+	/**
+	 * 读取上次备份的状态。状态文件不存在或无法读取时，视作没有上次备份。
+	 */
+	public static IncrementalBackup load(IncrementalBackupConfig config)
+	{
+		State state = null;
+		Path path = Paths.get(config.getStateFilePath());
+		if (Files.isRegularFile(path))
+		{
+			try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8))
+			{
+				state = GSON.fromJson(reader, State.class);
+			}
+			catch (Exception e)
+			{
+				log.warn("Failed to read incremental backup state \"{}\". A full backup will be made.",
+					path, e);
+			}
+		}
+		return new IncrementalBackup(config, state);
+	}
+
+	/**
+	 * 根据本次的修订版本号确定需要导出的页面。
+	 *
+	 * @param pages     本次收集到的全部页面。
+	 * @param revisions key = 页面名; value = 最新修订版本号，
+	 *                  或{@link #UNKNOWN_REVISION}、{@link #MISSING_REVISION}。
+	 */
+	public Plan plan(Collection<String> pages, Map<String, Long> revisions)
+	{
+		Plan plan = new Plan();
+		plan.revisions = revisions;
+		plan.full = previous == null
+		            || previous.revisions == null
+		            || previous.lastFullManifest == null
+		            || (config.getFullBackupInterval() > 0
+		                && previous.runsSinceFull + 1 >= config.getFullBackupInterval());
+		if (plan.full)
+		{
+			plan.pagesToExport = new ArrayList<>(pages);
+			plan.removedPages = Collections.emptyList();
+			return plan;
+		}
+		plan.pagesToExport = new ArrayList<>();
+		for (String page : pages)
+		{
+			long revision = revisions.getOrDefault(page, UNKNOWN_REVISION);
+			if (revision == MISSING_REVISION)
+			{
+				continue;
+			}
+			Long previousRevision = previous.revisions.get(page);
+			// 修订版本号未知时，保守地导出该页面。
+			if (revision == UNKNOWN_REVISION || previousRevision == null || previousRevision != revision)
+			{
+				plan.pagesToExport.add(page);
+			}
+		}
+		Set<String> current = new HashSet<>(pages);
+		plan.removedPages = new ArrayList<>();
+		for (String page : previous.revisions.keySet())
+		{
+			if (!current.contains(page)
+			    || revisions.getOrDefault(page, UNKNOWN_REVISION) == MISSING_REVISION)
+			{
+				plan.removedPages.add(page);
+			}
+		}
+		return plan;
+	}
+
+	/**
+	 * 备份完成后写入清单，并更新状态文件。
+	 *
+	 * 已导出页面记录的是导出文档中实际的修订版本号：镜像站可能落后于本站，
+	 * 若记录本站的版本号，落后的页面在之后的增量备份中将被误判为未变化。
+	 *
+	 * @param archivePath       本次备份的压缩文件路径，没有导出任何页面时为{@code null}。
+	 * @param manifestPrefix    清单文件的路径前缀，通常为压缩文件路径。
+	 * @param exportedRevisions 导出文档中的修订版本号，key为{@link ExportPageScanner#normalizeTitle}规范化的页面名。
+	 *                          为{@code null}时视作全部未知。
+	 * @return 清单文件路径。
+	 */
+	public String commit(
+		Plan plan,
+		String archivePath,
+		String manifestPrefix,
+		Map<String, Long> exportedRevisions) throws IOException
+	{
+		Manifest manifest = new Manifest();
+		manifest.type = plan.full ? "full" : "delta";
+		manifest.timestamp = System.currentTimeMillis();
+		manifest.archive = archivePath;
+		manifest.base = plan.full || previous == null ? null : previous.lastManifest;
+		manifest.fullBase = plan.full || previous == null ? null : previous.lastFullManifest;
+		manifest.exportedPages = plan.pagesToExport;
+		manifest.removedPages = plan.removedPages;
+		String manifestPath = manifestPrefix + MANIFEST_SUFFIX;
+		writeJsonAtomically(Paths.get(manifestPath), manifest);
+
+		State state = new State();
+		state.revisions = new TreeMap<>();
+		if (!plan.full && previous != null)
+		{
+			state.revisions.putAll(previous.revisions);
+			plan.removedPages.forEach(state.revisions::remove);
+		}
+		int lagging = 0;
+		for (String page : plan.pagesToExport)
+		{
+			Long exported = exportedRevisions == null
+				? null
+				: exportedRevisions.get(ExportPageScanner.normalizeTitle(page));
+			if (exported != null && exported > MISSING_REVISION)
+			{
+				state.revisions.put(page, exported);
+				if (exported != plan.revisions.getOrDefault(page, UNKNOWN_REVISION))
+				{
+					lagging++;
+				}
+			}
+			else
+			{
+				// 未知的页面在下次备份时将被重新导出。
+				state.revisions.remove(page);
+			}
+		}
+		if (lagging > 0)
+		{
+			log.info("[{}] pages were exported at a revision other than the home site's latest one. "
+			         + "They will be exported again in the next backup.", lagging);
+		}
+		state.lastManifest = manifestPath;
+		state.lastFullManifest = plan.full ? manifestPath : previous.lastFullManifest;
+		state.runsSinceFull = plan.full ? 0 : previous.runsSinceFull + 1;
+		writeJsonAtomically(Paths.get(config.getStateFilePath()), state);
+		log.info("Incremental backup state updated. Manifest: \"{}\".", manifestPath);
+		return manifestPath;
+	}
+
+	private static void writeJsonAtomically(Path path, Object value) throws IOException
+	{
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8))
+		{
+			GSON.toJson(value, writer);
+		}
+		Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * 本次备份的导出计划。
+	 */
+	@Getter
+	public static class Plan
+	{
+		/** 是否为完整备份。 */
+		private boolean full;
+		private List<String> pagesToExport;
+		private List<String> removedPages;
+		private Map<String, Long> revisions;
+	}
+
+	@Getter
+	@Setter
+	private static class State
+	{
+		/** 距离上次完整备份的增量备份次数。 */
+		private int runsSinceFull;
+		private String lastFullManifest;
+		private String lastManifest;
+		private Map<String, Long> revisions;
+	}
+
+	@Getter
+	@Setter
+	private static class Manifest
+	{
+		private String type;
+		private long timestamp;
+		private String archive;
+		/** 上一份清单，完整备份时为空。 */
+		private String base;
+		/** 所依赖的完整备份清单，完整备份时为空。 */
+		private String fullBase;
+		private List<String> exportedPages;
+		private List<String> removedPages;
+	}
+}
@@ -0,0 +1,266 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import jakarta.activation.DataHandler;
+import jakarta.activation.FileDataSource;
+import jakarta.mail.BodyPart;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Multipart;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeBodyPart;
+import jakarta.mail.internet.MimeMessage;
+import jakarta.mail.internet.MimeMultipart;
+import jakarta.mail.internet.PreencodedMimeBodyPart;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.config.EmailConfig;
+import pers.u8f23.crawler.houbun.category.config.EmailReceiverConfig;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 报告邮件的投递。
+ * 同一主机的SMTP连接认证后放回连接池，供后续收件人复用，连接数不超过同时投递的收件人数；
+ * 附件只以base64编码一次并写入临时文件，各邮件直接引用编码结果，不再逐封重新编码；
+ * 每个收件人的投递由{@link RetryPolicy}独立重试，失败的连接会被丢弃。
+ *
+ * @author 8f23
+ * @create 2026/10/19-02:10
+ */
+@Slf4j
+public class MailDelivery implements Closeable
+{
+	private static final String RETRY_ENDPOINT = "mail";
+
+	private final EmailConfig config;
+	private final RetryPolicy retryPolicy;
+	private final int parallelism;
+	private final Session session;
+	private final Queue<Transport> idleTransports = new ConcurrentLinkedQueue<>();
+	/** key = 附件文件路径; value = 编码后的临时文件。 */
+	private final Map<String, Path> encodedAttachments = new ConcurrentHashMap<>();
+
+	public MailDelivery(EmailConfig config, RetryPolicy retryPolicy)
+	{
+		this.config = config;
+		this.retryPolicy = retryPolicy;
+		this.parallelism = Math.max(1, config.getParallelism());
+		Properties props = new Properties();
+		props.setProperty(
+			"mail.transport.protocol",
+			Objects.requireNonNull(config.getTransportType())
+		);
+		props.setProperty("mail.host", Objects.requireNonNull(config.getEmailHost()));
+		props.setProperty("mail.user", Objects.requireNonNull(config.getFromUser()));
+		props.setProperty("mail.from", Objects.requireNonNull(config.getFromEmail()));
+		this.session = Session.getInstance(props, null);
+	}
+
+	/**
+	 * 向各收件人投递邮件，至多同时投递{@link EmailConfig#getParallelism()}封。此方法会阻塞至全部投递结束。
+	 *
+	 * @param subjectOf     各收件人的邮件主题。
+	 * @param attachmentsOf 各收件人的附件。key = 附件文件路径; value = 附件名。
+	 * @return 投递失败的收件人数。
+	 */
+	public int sendAll(
+		Collection<EmailReceiverConfig> receivers,
+		Function<EmailReceiverConfig, String> subjectOf,
+		String content,
+		Function<EmailReceiverConfig, Map<String, String>> attachmentsOf)
+	{
+		AtomicInteger failures = new AtomicInteger();
+		Flowable.fromIterable(receivers)
+			.flatMapCompletable(
+				receiver -> Single
+					.fromCallable(() -> send(
+						receiver.getAddress(),
+						subjectOf.apply(receiver),
+						content,
+						attachmentsOf.apply(receiver)
+					))
+					.subscribeOn(Schedulers.io())
+					.compose(retryPolicy.apply(
+						RETRY_ENDPOINT,
+						() -> log.warn("Failed to send mail to \"{}\".", receiver.getAddress())
+					))
+					.ignoreElement()
+					.doOnError(th -> {
+						failures.incrementAndGet();
+						log.error("Give up sending mail to \"{}\".", receiver.getAddress(), th);
+					})
+					.onErrorComplete(),
+				false,
+				parallelism
+			)
+			.blockingAwait();
+		return failures.get();
+	}
+
+	/**
+	 * 发送单封邮件。
+	 *
+	 * @param attachments key = 附件文件路径; value = 附件名
+	 * @return 收件人地址。
+	 */
+	private String send(
+		final String receiverAddr,
+		final String subject,
+		final String content,
+		final Map<String, String> attachments
+	) throws MessagingException, IOException
+	{
+		MimeMessage message = new MimeMessage(session);
+		message.setFrom(new InternetAddress(config.getFromEmail()));
+		InternetAddress to = new InternetAddress(receiverAddr);
+		message.setRecipient(Message.RecipientType.TO, to);
+		message.setSubject(subject);
+		Multipart multipart = new MimeMultipart();
+		BodyPart textPart = new MimeBodyPart();
+		textPart.setContent(content, "text/html;charset=utf8");
+		multipart.addBodyPart(textPart);
+		for (Map.Entry<String, String> entry : attachments.entrySet())
+		{
+			String path = Objects.requireNonNull(entry.getKey());
+			String fileName = Objects.requireNonNull(entry.getValue());
+			File f = new File(path);
+			if (!f.isFile() || !f.canRead())
+			{
+				log.error("Failed to find file\"{}\"", path);
+				continue;
+			}
+			multipart.addBodyPart(attachmentPart(path, fileName));
+		}
+		message.setContent(multipart);
+		message.saveChanges();
+
+		Transport transport = borrowTransport();
+		try
+		{
+			transport.sendMessage(message, message.getAllRecipients());
+		}
+		catch (MessagingException e)
+		{
+			// 连接状态未知，不再复用。
+			closeQuietly(transport);
+			throw e;
+		}
+		idleTransports.offer(transport);
+		log.info("success to send mail to \"{}\"", to);
+		return receiverAddr;
+	}
+
+	/**
+	 * 使用编码后的附件内容构建附件，同一文件只编码一次。
+	 */
+	private BodyPart attachmentPart(String path, String fileName) throws MessagingException, IOException
+	{
+		Path encoded = encodedAttachments.get(path);
+		if (encoded == null)
+		{
+			synchronized (encodedAttachments)
+			{
+				encoded = encodedAttachments.get(path);
+				if (encoded == null)
+				{
+					encoded = encode(Paths.get(path));
+					encodedAttachments.put(path, encoded);
+				}
+			}
+		}
+		MimeBodyPart part = new PreencodedMimeBodyPart("base64");
+		part.setDataHandler(new DataHandler(new FileDataSource(encoded.toFile())));
+		part.setHeader("Content-Type", "application/octet-stream");
+		part.setFileName(fileName);
+		return part;
+	}
+
+	private static Path encode(Path source) throws IOException
+	{
+		Path target = Files.createTempFile("mail-attachment", ".b64");
+		try (InputStream is = Files.newInputStream(source);
+		     OutputStream os = Base64.getMimeEncoder().wrap(Files.newOutputStream(target)))
+		{
+			is.transferTo(os);
+		}
+		log.info("Encoded attachment \"{}\" to [{}] bytes.", source, Files.size(target));
+		return target;
+	}
+
+	/**
+	 * 取出空闲的已认证连接，没有时新建连接。
+	 */
+	private Transport borrowTransport() throws MessagingException
+	{
+		Transport transport;
+		while ((transport = idleTransports.poll()) != null)
+		{
+			if (transport.isConnected())
+			{
+				return transport;
+			}
+			closeQuietly(transport);
+		}
+		transport = session.getTransport();
+		transport.connect(config.getEmailHost(), config.getFromEmail(), config.getAuthCode());
+		return transport;
+	}
+
+	private static void closeQuietly(Transport transport)
+	{
+		try
+		{
+			transport.close();
+		}
+		catch (MessagingException e)
+		{
+			log.debug("Failed to close mail transport.", e);
+		}
+	}
+
+	/**
+	 * 关闭连接池中的连接，并删除编码后的临时文件。
+	 */
+	@Override
+	public void close()
+	{
+		Transport transport;
+		while ((transport = idleTransports.poll()) != null)
+		{
+			closeQuietly(transport);
+		}
+		for (Path encoded : encodedAttachments.values())
+		{
+			try
+			{
+				Files.deleteIfExists(encoded);
+			}
+			catch (IOException e)
+			{
+				log.warn("Failed to delete encoded attachment \"{}\".", encoded, e);
+			}
+		}
+		encodedAttachments.clear();
+	}
+}
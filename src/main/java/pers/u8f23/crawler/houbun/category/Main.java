@@ -5,43 +5,53 @@ import io.reactivex.rxjava3.core.Completable;
 import io.reactivex.rxjava3.core.Single;
 import io.reactivex.rxjava3.plugins.RxJavaPlugins;
 import io.reactivex.rxjava3.schedulers.Schedulers;
-import jakarta.activation.DataHandler;
-import jakarta.activation.DataSource;
-import jakarta.activation.FileDataSource;
-import jakarta.mail.*;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeBodyPart;
-import jakarta.mail.internet.MimeMessage;
-import jakarta.mail.internet.MimeMultipart;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.Call;
 import okhttp3.FormBody;
+import okhttp3.HttpUrl;
 import okhttp3.Request;
 import okhttp3.ResponseBody;
-import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
-import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.tukaani.xz.LZMA2Options;
+import pers.u8f23.crawler.houbun.category.config.CompressionCodec;
+import pers.u8f23.crawler.houbun.category.config.CompressionConfig;
+import pers.u8f23.crawler.houbun.category.config.EmailConfig;
+import pers.u8f23.crawler.houbun.category.config.IncrementalBackupConfig;
+import pers.u8f23.crawler.houbun.category.config.MetricsConfig;
+import pers.u8f23.crawler.houbun.category.config.ProjectConfig;
+import pers.u8f23.crawler.houbun.category.config.ReplayConfig;
+import pers.u8f23.crawler.houbun.category.config.ReplayMode;
+import pers.u8f23.crawler.houbun.category.config.RepositoryConfig;
+import pers.u8f23.crawler.houbun.category.config.RetryConfig;
 import pers.u8f23.crawler.houbun.category.config.RootConfig;
 import pers.u8f23.crawler.houbun.category.response.ApiBaseResponse;
 import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+import pers.u8f23.crawler.houbun.category.response.CreatorsResponse;
 import pers.u8f23.crawler.houbun.category.response.Query;
-import retrofit2.Response;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.function.LongUnaryOperator;
-import java.util.function.Supplier;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
-import static pers.u8f23.crawler.houbun.category.HttpUtils.MIRROR_SITE_BACKUP_URL;
-import static pers.u8f23.crawler.houbun.category.HttpUtils.MIRROR_SITE_CLIENT;
 
 /**
  * @author 8f23
@@ -50,232 +60,1599 @@ import static pers.u8f23.crawler.houbun.category.HttpUtils.MIRROR_SITE_CLIENT;
 @Slf4j
 public class Main
 {
-	private static RootConfig config;
-	private static final String ROOT_PATH = "Category:芳文社";
-	private static final long MAX_WAIT_INTERVAL = 40 * 60 * 1000; //40 minutes
-	private static final LongUnaryOperator WAIT_INTERVAL_UPGRADE_RULE = l -> (l << 1);
+	private static RootConfig rootConfig;
+	private static CategoryPageSource categorySource;
+	private static ConcurrentCategoryTraverser concurrentTraverser;
+	/** 本站请求的自适应节奏控制，未启用时为空。 */
+	private static AdaptivePacer pacer;
+	private static RetryPolicy retryPolicy;
+	private static CrawlMetrics metrics;
+	/** 分类图缓存，未配置时为空。 */
+	private static CategoryGraphCache graphCache;
+	/** 回放模式下的替身服务器，其余模式下为空。 */
+	private static ReplayServer replayServer;
+	/**
+	 * 多个项目共享的分类页面解析结果，保证同一页面只请求一次。只有一个项目时为空。
+	 * 请求中的页面同样占有条目，其他项目等待其结果；请求失败的页面会被移除，允许其他项目重试。
+	 */
+	private static Map<String, CompletableFuture<CategoryPageParsed>> sharedCategoryPages;
+	/** 多个项目共享的作品作者，用法同{@link #sharedCategoryPages}。只有一个项目时为空。 */
+	private static Map<String, CompletableFuture<Set<String>>> sharedCreators;
+	/** 尚未完成分类遍历的项目数，归零时写入分类图缓存。 */
+	private static final AtomicInteger TRAVERSING_PROJECTS = new AtomicInteger();
+	/** 是否所有项目都从头完整遍历了分类，决定写入分类图缓存时能否清理旧节点。 */
+	private static final AtomicBoolean ALL_TRAVERSALS_FRESH = new AtomicBoolean(true);
+	/** 是否有项目遍历了分类，所有项目都跳过遍历时无需写入分类图缓存。 */
+	private static final AtomicBoolean ANY_TRAVERSAL = new AtomicBoolean();
+	/** 所有项目结束遍历后完成，结果为分类图缓存的统计，未写入缓存时为空。 */
+	private static CompletableFuture<String> categoryGraphSummary;
+	private static long startTime;
+	/** MediaWiki API单次请求可携带的页面标题数上限。 */
+	private static final int MAX_TITLES_PER_QUERY = 50;
+	private static final long DEFAULT_HTTP_CACHE_SIZE = 256L * 1024 * 1024;
+	/** 流式压缩时，下载线程与压缩线程间缓冲区的块数。 */
+	private static final int PIPELINE_QUEUE_BLOCKS = 16;
+	/** 未配置时，报告邮件的投递从5秒开始每次等待时间加倍，单次等待超过5分钟时放弃。 */
+	private static final RetryConfig DEFAULT_MAIL_RETRY =
+		new RetryConfig(5000, 5 * 60 * 1000, 2, 0, 0, 60 * 1000);
+
+	/** 项目名，未配置多个项目时为空。 */
+	private final String name;
+	private final String rootCategory;
+	/** 本项目的配置，由根配置与项目配置合并而来。 */
+	private final RootConfig config;
+	private final CrawlJournal journal;
+	/** 是否从头遍历分类，从爬取日志中途恢复时为否。 */
+	private final boolean freshTraversal;
+	/** 是否需要遍历分类，爬取日志中已完成遍历时为否。 */
+	private final boolean traversalNeeded;
+	/** 流式压缩时写入压缩文件的原始数据量。 */
+	private volatile long rawBackupSize;
+	/** 去重备份仓库，未配置时为空。 */
+	private BackupRepository repository;
+	/** 最近一次写入的仓库快照。 */
+	private BackupRepository.SnapshotWriter repositorySnapshot;
+	private boolean snapshotCarriedOver;
+	private Collection<String> snapshotRemovedPages;
+	/** 本项目是否已结束分类遍历，见{@link #finishTraversal(boolean)}。 */
+	private boolean traversalFinished;
+	/** 流式压缩时最近一次下载中实际导出的修订版本号。key = 规范化的页面名; value = 修订版本号。 */
+	private Map<String, Long> exportedRevisions;
+	/** 报告邮件中的附加条目。key = 条目名; value = 内容。 */
+	private final Map<String, String> reportItems = new LinkedHashMap<>();
+
+	private Main(String name, String rootCategory, RootConfig config)
+	{
+		this.name = name;
+		this.rootCategory = rootCategory;
+		this.config = config;
+		this.journal = openJournal();
+		CrawlJournal.State resumed = journal.getState();
+		this.freshTraversal = resumed.traversal(CrawlJournal.PHASE_WORKS).getVisited().isEmpty()
+		                      && resumed.traversal(CrawlJournal.PHASE_PAGES).getVisited().isEmpty();
+		this.traversalNeeded = !resumed.isCompleted(CrawlJournal.PHASE_PAGES);
+	}
+
+	public static void main(String[] args)
+	{
+		// 读取配置文件。
+		String definedConfigFile = args.length > 0 ? args[0] : null;
+		if (definedConfigFile == null)
+		{
+			log.info("use default config file.");
+		}
+		else
+		{
+			log.info("use assigned config file at\"{}\".", definedConfigFile);
+		}
+		rootConfig = readConfig(definedConfigFile);
+		if (rootConfig == null)
+		{
+			log.error("missing config file!");
+			return;
+		}
+		log.info("Success to load config:{}", new Gson().toJson(rootConfig));
+
+		if (rootConfig.isPrintExceptionsToLog())
+		{
+			RxJavaPlugins.setErrorHandler((th) -> log.info(
+				"global rxjava error catch: ",
+				th
+			));
+		}
+
+		if (rootConfig.isVirtualThreads() && !VirtualThreads.enable())
+		{
+			log.warn("Virtual thread execution mode is unavailable. Continue with platform threads.");
+		}
+
+		if (rootConfig.getHomeSiteBaseUrl() != null || rootConfig.getMirrorSiteBackupUrl() != null)
+		{
+			HttpUtils.setSiteUrls(
+				Objects.requireNonNullElse(rootConfig.getHomeSiteBaseUrl(), HttpUtils.HOME_SITE_BASE_URL),
+				Objects.requireNonNullElse(rootConfig.getMirrorSiteBackupUrl(), HttpUtils.MIRROR_SITE_BACKUP_URL)
+			);
+		}
+		if (rootConfig.getReplay() != null && !setupReplay())
+		{
+			return;
+		}
+
+		ParsedPageCache parsedCache = null;
+		if (rootConfig.getHttpCache() != null && rootConfig.getHttpCache().getDirectory() != null)
+		{
+			long maxSize = rootConfig.getHttpCache().getMaxSize() > 0
+				? rootConfig.getHttpCache().getMaxSize()
+				: DEFAULT_HTTP_CACHE_SIZE;
+			HttpUtils.enableHomeSiteCache(new File(rootConfig.getHttpCache().getDirectory()), maxSize);
+			parsedCache = new ParsedPageCache();
+			log.info("Http cache enabled at \"{}\" with max size [{}] bytes.",
+				rootConfig.getHttpCache().getDirectory(), maxSize);
+		}
+		categorySource = CategoryPageSource.of(
+			rootConfig.getCategorySource(),
+			rootConfig.getCategoryParser(),
+			parsedCache
+		);
+		if (rootConfig.getAdaptivePacing() == null
+		    && rootConfig.getRequestsPerSecond() <= 0
+		    && rootConfig.getConcurrentRequests() > 1)
+		{
+			// 并发请求时各请求的强制等待互不相干，总速率会成倍增加；改为全局限速，总速率与单线程时相同。
+			double rate = 1000.0 / Math.max(1, rootConfig.getRequestIntervalTime());
+			log.info("[{}] concurrent requests without a rate limit. "
+			         + "Limit home site requests to [{}] per second.",
+				rootConfig.getConcurrentRequests(), rate);
+			rootConfig.setRequestsPerSecond(rate);
+		}
+		if (rootConfig.getAdaptivePacing() != null)
+		{
+			pacer = HttpUtils.enableAdaptivePacing(rootConfig.getAdaptivePacing());
+		}
+		else if (rootConfig.getRequestsPerSecond() > 0)
+		{
+			HttpUtils.HOME_SITE_RATE_LIMITER.setRate(rootConfig.getRequestsPerSecond());
+		}
+		if (rootConfig.getConcurrentRequests() > 1)
+		{
+			concurrentTraverser = new ConcurrentCategoryTraverser(
+				rootConfig.getConcurrentRequests(),
+				Main::requestCategoryPage
+			);
+		}
+
+		if (rootConfig.getDaemon() != null)
+		{
+			runDaemon();
+		}
+		else
+		{
+			runOnce();
+		}
+		if (replayServer != null)
+		{
+			replayServer.close();
+		}
+	}
+
+	/**
+	 * 以守护进程模式执行，按计划反复备份直至进程退出。
+	 * 请求客户端的连接池、页面缓存与已编译的代码在多次执行间保留。
+	 */
+	private static void runDaemon()
+	{
+		CrawlDaemon daemon;
+		try
+		{
+			daemon = new CrawlDaemon(rootConfig.getDaemon(), Main::runOnce);
+			daemon.start();
+		}
+		catch (IllegalArgumentException | IOException e)
+		{
+			log.error("Failed to start daemon.", e);
+			return;
+		}
+		Runtime.getRuntime().addShutdownHook(new Thread(daemon::close, "daemon-shutdown"));
+		daemon.awaitTermination();
+	}
+
+	/**
+	 * 执行一次备份。每次执行使用新的性能指标、重试状态与时间戳，共享的请求客户端与缓存保持不变。
+	 *
+	 * @return 是否所有项目都执行成功。
+	 */
+	private static boolean runOnce()
+	{
+		startTime = System.currentTimeMillis();
+		metrics = new CrawlMetrics();
+		// 缓存统计为进程级，守护进程模式下须清零，报告中只包含本次执行的统计。
+		HttpUtils.HOME_SITE_CACHE_STATS.reset();
+		retryPolicy = new RetryPolicy(
+			rootConfig.getRetry() == null ? new RetryConfig() : rootConfig.getRetry(),
+			rootConfig.getRequestIntervalTime(),
+			Schedulers.computation(),
+			metrics
+		);
+		// 分类图缓存每次从文件重新读取，以丢弃上次执行的访问记录与统计。
+		graphCache = null;
+		if (rootConfig.getCategoryGraph() != null && rootConfig.getCategoryGraph().getFilePath() != null)
+		{
+			graphCache = CategoryGraphCache.load(
+				rootConfig.getCategoryGraph().getFilePath(),
+				rootConfig.getCategoryGraph().getTtl()
+			);
+		}
+		List<Main> projects = createProjects(withTimestamp(rootConfig));
+		if (projects == null)
+		{
+			return false;
+		}
+		sharedCategoryPages = projects.size() > 1 ? new ConcurrentHashMap<>() : null;
+		sharedCreators = projects.size() > 1 ? new ConcurrentHashMap<>() : null;
+
+		// 分类图缓存：遍历前使成员数变化的分类失效，所有项目遍历完成后统一写入。
+		TRAVERSING_PROJECTS.set(projects.size());
+		ALL_TRAVERSALS_FRESH.set(true);
+		ANY_TRAVERSAL.set(false);
+		categoryGraphSummary = new CompletableFuture<>();
+		if (graphCache != null && projects.stream().anyMatch(project -> project.traversalNeeded))
+		{
+			checkCategoryGraph();
+		}
+		boolean succeeded = runProjects(projects);
+		writeMetrics();
+		return succeeded;
+	}
+
+	/**
+	 * 按配置创建备份项目。未配置多个项目时，以根配置备份{@link RootConfig#getRootCategory()}。
+	 *
+	 * @return 备份项目，配置有误时返回{@code null}。
+	 */
+	private static List<Main> createProjects(RootConfig runConfig)
+	{
+		List<ProjectConfig> projectConfigs = runConfig.getProjects();
+		if (projectConfigs == null || projectConfigs.isEmpty())
+		{
+			return Collections.singletonList(new Main(null, runConfig.getRootCategory(), runConfig));
+		}
+		List<Main> result = new ArrayList<>();
+		Set<String> names = new HashSet<>();
+		for (ProjectConfig project : projectConfigs)
+		{
+			if (project.getName() == null || project.getRootCategory() == null)
+			{
+				log.error("Name and root category are required for every project.");
+				result.forEach(created -> created.journal.close());
+				return null;
+			}
+			if (!names.add(project.getName()))
+			{
+				log.error("Duplicate project name <{}>.", project.getName());
+				result.forEach(created -> created.journal.close());
+				return null;
+			}
+			result.add(new Main(
+				project.getName(),
+				project.getRootCategory(),
+				mergeConfig(runConfig, project)
+			));
+		}
+		return result;
+	}
+
+	/**
+	 * 合并根配置与项目配置。项目未指定的路径由根配置中的路径追加项目名得到，避免各项目互相覆盖。
+	 */
+	private static RootConfig mergeConfig(RootConfig runConfig, ProjectConfig project)
+	{
+		RootConfig result = copyConfig(runConfig);
+		String name = project.getName();
+		result.setProjects(null);
+		result.setRootCategory(project.getRootCategory());
+		result.setOutputFilePath(Objects.requireNonNullElseGet(
+			project.getOutputFilePath(),
+			() -> withProjectSuffix(runConfig.getOutputFilePath(), name)
+		));
+		result.setCompressedFilePath(Objects.requireNonNullElseGet(
+			project.getCompressedFilePath(),
+			() -> withProjectSuffix(runConfig.getCompressedFilePath(), name)
+		));
+		result.setJournalFilePath(Objects.requireNonNullElseGet(
+			project.getJournalFilePath(),
+			() -> withProjectSuffix(runConfig.getJournalFilePath(), name)
+		));
+		if (project.getIncrementalStateFilePath() != null)
+		{
+			if (result.getIncrementalBackup() == null)
+			{
+				result.setIncrementalBackup(new IncrementalBackupConfig());
+			}
+			result.getIncrementalBackup().setStateFilePath(project.getIncrementalStateFilePath());
+		}
+		else if (result.getIncrementalBackup() != null)
+		{
+			result.getIncrementalBackup().setStateFilePath(
+				withProjectSuffix(result.getIncrementalBackup().getStateFilePath(), name));
+		}
+		if (project.getRepositoryDirectory() != null)
+		{
+			if (result.getRepository() == null)
+			{
+				result.setRepository(new RepositoryConfig());
+			}
+			result.getRepository().setDirectory(project.getRepositoryDirectory());
+		}
+		else if (result.getRepository() != null && result.getRepository().getDirectory() != null)
+		{
+			result.getRepository().setDirectory(
+				Paths.get(result.getRepository().getDirectory(), name).toString());
+		}
+		if (result.getEmailConfig() != null)
+		{
+			String subject = result.getEmailConfig().getMailSubject();
+			result.getEmailConfig().setMailSubject(Objects.requireNonNullElseGet(
+				project.getMailSubject(),
+				() -> subject == null ? name : subject + " - " + name
+			));
+		}
+		return result;
+	}
+
+	/**
+	 * 在路径的文件名与扩展名之间插入项目名。
+	 */
+	private static String withProjectSuffix(String path, String name)
+	{
+		if (path == null)
+		{
+			return null;
+		}
+		int separator = Math.max(path.lastIndexOf('/'), path.lastIndexOf('\\'));
+		int dot = path.lastIndexOf('.');
+		return dot > separator + 1
+			? path.substring(0, dot) + "-" + name + path.substring(dot)
+			: path + "-" + name;
+	}
+
+	/**
+	 * 执行所有项目并等待完成。多个项目并发执行，单个项目失败不影响其他项目。
+	 *
+	 * @return 是否所有项目都备份成功。只有一个项目时，其异常直接抛出。
+	 */
+	private static boolean runProjects(List<Main> projects)
+	{
+		if (projects.size() == 1)
+		{
+			return projects.get(0).run();
+		}
+		boolean succeeded = true;
+		ExecutorService executor = VirtualThreads.newTaskExecutor(projects.size());
+		try
+		{
+			List<Future<Boolean>> futures = new ArrayList<>();
+			for (Main project : projects)
+			{
+				futures.add(executor.submit(project::run));
+			}
+			for (int i = 0; i < futures.size(); i++)
+			{
+				try
+				{
+					if (!futures.get(i).get())
+					{
+						log.error("Project <{}> failed to back up.", projects.get(i).name);
+						succeeded = false;
+					}
+				}
+				catch (ExecutionException e)
+				{
+					log.error("Project <{}> failed.", projects.get(i).name, e.getCause());
+					succeeded = false;
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			succeeded = false;
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+		return succeeded;
+	}
+
+	/**
+	 * 执行本项目的备份。无论成功与否都会关闭爬取日志：成功时删除日志，否则保留日志以便下次继续。
+	 *
+	 * @return 是否备份成功。
+	 */
+	private boolean run()
+	{
+		boolean succeeded = false;
+		try
+		{
+			succeeded = backup();
+		}
+		finally
+		{
+			if (succeeded)
+			{
+				journal.finish();
+			}
+			else
+			{
+				if (journal.isEnabled())
+				{
+					// 保留日志，下次执行跳过已完成的阶段，例如从下载阶段继续。
+					log.warn("Backup failed. Keep crawl journal to resume next time.");
+				}
+				journal.close();
+			}
+			if (!traversalFinished)
+			{
+				// 遍历中途失败也须计数，否则其他项目的遍历结果不会写入分类图缓存。
+				finishTraversal(false);
+			}
+		}
+		return succeeded;
+	}
+
+	/**
+	 * 遍历分类、请求作者、导出、压缩并发送报告邮件。
+	 *
+	 * @return 是否备份成功。
+	 */
+	private boolean backup()
+	{
+		if (name != null)
+		{
+			log.info("Start project <{}> from <{}>.", name, rootCategory);
+		}
+		CrawlJournal.State resumed = journal.getState();
+
+		// 请求作品名。
+		metrics.beginPhase(phase("traversal"));
+		CrawlJournal.TraversalState worksState = resumed.traversal(CrawlJournal.PHASE_WORKS);
+		// 结果集合只存放条目名，分类页面与分页请求路径记录在单独的已访问集合中。
+		Set<String> worksTitles = new CompactStringSet(worksState.getResults());
+		if (resumed.isCompleted(CrawlJournal.PHASE_WORKS))
+		{
+			log.info("Resume all titles from crawl journal. Collection size is [{}].",
+				worksTitles.size());
+		}
+		else
+		{
+			log.info("Start to request titles.");
+			List<String> roots = new ArrayList<>();
+			roots.add(rootCategory);
+			roots.addAll(worksState.getPending());
+			Set<String> visited = new CompactStringSet(worksState.getVisited());
+			traverseCategory(roots, CrawlJournal.PHASE_WORKS, visited, worksTitles);
+			journal.completePhase(CrawlJournal.PHASE_WORKS, null);
+			log.info("Success to request all titles. Collection size is [{}].",
+				worksTitles.size());
+		}
+
+		// 请求各作品下页面。
+		CrawlJournal.TraversalState pagesState = resumed.traversal(CrawlJournal.PHASE_PAGES);
+		CompactStringSet normalPages = new CompactStringSet(worksTitles);
+		normalPages.addAll(pagesState.getResults());
+		String[] titleArray = worksTitles.toArray(new String[0]);
+		if (resumed.isCompleted(CrawlJournal.PHASE_PAGES))
+		{
+			log.info("Resume normal pages under work categories from crawl journal.");
+		}
+		else
+		{
+			log.info("Start to request normal pages under work categories.");
+			Set<String> visited = new CompactStringSet(pagesState.getVisited());
+			List<String> pending = pagesState.getPending();
+			if (concurrentTraverser != null)
+			{
+				log.info("Start to request pages under [{}] work categories concurrently.",
+					titleArray.length);
+				List<String> roots = new ArrayList<>(pending);
+				Arrays.stream(titleArray)
+					.map(category -> "Category:" + category)
+					.forEach(roots::add);
+				traverseCategory(roots, CrawlJournal.PHASE_PAGES, visited, normalPages);
+			}
+			else
+			{
+				if (!pending.isEmpty())
+				{
+					log.info("Resume [{}] pending category pages from crawl journal.",
+						pending.size());
+					traverseCategory(pending, CrawlJournal.PHASE_PAGES, visited, normalPages);
+				}
+				for (int i = 0; i < titleArray.length; i++)
+				{
+					String category = titleArray[i];
+					log.info("Start to request pages under category <{}>. Task progress: [{} / {}]",
+						"Category:" + category, i + 1, titleArray.length);
+					traverseCategory(
+						Collections.singletonList("Category:" + category),
+						CrawlJournal.PHASE_PAGES,
+						visited,
+						normalPages
+					);
+				}
+			}
+			journal.completePhase(CrawlJournal.PHASE_PAGES, null);
+		}
+		metrics.endPhase(phase("traversal"));
+		finishTraversal(true);
+
+		// 批量请求各作品的作者。
+		Map<String, Set<String>> creatorsOfWorks = new LinkedHashMap<>(resumed.getCreators());
+		if (!resumed.isCompleted(CrawlJournal.PHASE_CREATORS))
+		{
+			List<String> unresolvedWorks = worksTitles.stream()
+				.filter(work -> !creatorsOfWorks.containsKey(work))
+				.collect(Collectors.toList());
+			log.info("Start to request creators of [{}] works.", unresolvedWorks.size());
+			metrics.beginPhase(phase("creators"));
+			creatorsOfWorks.putAll(requestCreators(unresolvedWorks));
+			metrics.endPhase(phase("creators"));
+			journal.completePhase(CrawlJournal.PHASE_CREATORS, null);
+		}
+		creatorsOfWorks.forEach((work, creators) -> {
+			normalPages.addAll(creators);
+			log.info("Succeed to find [{}] creators of work <{}>. ", creators.size(), work);
+		});
+		log.info("Success to request all normal pages. Page collection size is [{}], using [{}] bytes.",
+			normalPages.size(), normalPages.memoryUsage());
+		if (config.getHttpCache() != null)
+		{
+			log.info("Http cache statistics: {}.", HttpUtils.HOME_SITE_CACHE_STATS.summary());
+			reportItems.put("请求缓存统计", HttpUtils.HOME_SITE_CACHE_STATS.summary());
+		}
+		if (retryPolicy.totalRetries() > 0)
+		{
+			log.info("Retry statistics: {}.", retryPolicy.summary());
+			reportItems.put("重试统计", retryPolicy.summary());
+		}
+		if (pacer != null)
+		{
+			log.info("Adaptive pacing: {}.", pacer.summary());
+			reportItems.put("请求节奏", pacer.summary());
+		}
+//		normalPages.forEach(System.out::println);
+
+		// 增量备份时，只导出发生变化的页面。
+		IncrementalBackup incrementalBackup = null;
+		IncrementalBackup.Plan backupPlan = null;
+		Collection<String> pagesToExport = normalPages;
+		if (config.getIncrementalBackup() != null
+		    && config.getIncrementalBackup().getStateFilePath() != null)
+		{
+			incrementalBackup = IncrementalBackup.load(config.getIncrementalBackup());
+			log.info("Start to request revisions of [{}] pages.", normalPages.size());
+			metrics.beginPhase(phase("revisions"));
+			backupPlan = incrementalBackup.plan(normalPages, requestRevisions(normalPages));
+			metrics.endPhase(phase("revisions"));
+			pagesToExport = backupPlan.getPagesToExport();
+			log.info("Backup mode: [{}]. Pages to export: [{}]. Removed pages: [{}].",
+				backupPlan.isFull() ? "full" : "delta",
+				pagesToExport.size(),
+				backupPlan.getRemovedPages().size());
+			reportItems.put("备份模式", backupPlan.isFull() ? "完整备份" : "增量备份");
+			reportItems.put("导出页数", String.valueOf(pagesToExport.size()));
+			reportItems.put("移除页数", String.valueOf(backupPlan.getRemovedPages().size()));
+		}
+		final Collection<String> exportPages = pagesToExport;
+		boolean backupSucceeded = true;
+		if (config.getRepository() != null && config.getRepository().getDirectory() != null)
+		{
+			openRepository(backupPlan);
+		}
+
+		if (exportPages.isEmpty())
+		{
+			log.info("No page changed since last backup. Skip downloading and compressing.");
+		}
+		else
+		{
+			String compressedFile = resumed.getPhaseValue(CrawlJournal.PHASE_COMPRESS);
+			if (compressedFile != null && new File(compressedFile).isFile())
+			{
+				log.info("Resume compressed backup file \"{}\" from crawl journal.", compressedFile);
+				config.setCompressedFilePath(compressedFile);
+				String downloadedFile = resumed.getPhaseValue(CrawlJournal.PHASE_DOWNLOAD);
+				if (downloadedFile != null)
+				{
+					config.setOutputFilePath(downloadedFile);
+				}
+			}
+			else if (config.isStreamingCompression())
+			{
+				// 下载的同时压缩，不经过磁盘上的中间文件。
+				log.info("Start to download and compress backup file.");
+				long start = System.currentTimeMillis();
+				// 下载与压缩同时进行，两个阶段的耗时相同。
+				metrics.beginPhase(phase("download"));
+				metrics.beginPhase(phase("compress"));
+				boolean archived = downloadBackupArchive(exportPages);
+				metrics.endPhase(phase("download"));
+				metrics.endPhase(phase("compress"));
+				if (archived)
+				{
+					// 耗时包含下载，吞吐量受网络限制。
+					reportCompression(rawBackupSize, System.currentTimeMillis() - start);
+					journal.completePhase(
+						CrawlJournal.PHASE_DOWNLOAD,
+						config.isKeepRawBackup() ? config.getOutputFilePath() : null
+					);
+					journal.completePhase(CrawlJournal.PHASE_COMPRESS, config.getCompressedFilePath());
+					log.info("Success to download and compress backup file.");
+				}
+				else
+				{
+					log.error("Failed to download and compress backup file.");
+					discardPartialArchive();
+					backupSucceeded = false;
+				}
+			}
+			else
+			{
+				// 请求镜像站备份文件。
+				String downloadedFile = resumed.getPhaseValue(CrawlJournal.PHASE_DOWNLOAD);
+				if (downloadedFile != null && new File(downloadedFile).isFile())
+				{
+					log.info("Resume downloaded backup file \"{}\" from crawl journal.", downloadedFile);
+					config.setOutputFilePath(downloadedFile);
+				}
+				else
+				{
+					log.info("Start to download backup file.");
+					metrics.beginPhase(phase("download"));
+					boolean downloaded;
+					if (config.getExportChunkSize() > 0)
+					{
+						downloaded = createChunkedExporter()
+							.export(exportPages, config.getOutputFilePath());
+					}
+					else
+					{
+						downloaded = requestWithRetry(
+							"export",
+							Single.fromCallable(() -> downloadBackupFile(
+								exportPages,
+								Paths.get(config.getOutputFilePath())
+							)),
+							() -> log.info("Try to download backup file."),
+							() -> log.warn("Failed to download backup file.")
+						) != null;
+					}
+					metrics.endPhase(phase("download"));
+					if (downloaded)
+					{
+						journal.completePhase(CrawlJournal.PHASE_DOWNLOAD, config.getOutputFilePath());
+						log.info("Success to download backup file.");
+					}
+					else
+					{
+						log.error("Failed to download backup file.");
+						backupSucceeded = false;
+					}
+				}
+
+				// 压缩备份文件。下载失败时不压缩不完整的文件，也不记录压缩阶段，下次运行将重新下载。
+				if (backupSucceeded)
+				{
+					metrics.beginPhase(phase("compress"));
+					compressBackupFile();
+					metrics.endPhase(phase("compress"));
+					journal.completePhase(CrawlJournal.PHASE_COMPRESS, config.getCompressedFilePath());
+					writeRepositorySnapshot();
+				}
+			}
+			if (backupSucceeded)
+			{
+				reportRepositorySnapshot();
+			}
+		}
+
+		if (incrementalBackup != null && backupSucceeded)
+		{
+			try
+			{
+				incrementalBackup.commit(
+					backupPlan,
+					exportPages.isEmpty() ? null : config.getCompressedFilePath(),
+					config.getCompressedFilePath(),
+					exportPages.isEmpty() ? Collections.emptyMap() : collectExportedRevisions()
+				);
+			}
+			catch (IOException e)
+			{
+				log.error("Failed to update incremental backup state.", e);
+			}
+		}
+
+		// 分类图缓存在所有项目结束遍历后写入，各项目的报告都包含其统计。
+		String graphSummary = categoryGraphSummary.join();
+		if (graphSummary != null)
+		{
+			reportItems.put("分类图缓存", graphSummary);
+		}
+
+		// 发送报告邮件。
+		String metricsSummary = metrics.summary();
+		log.info("Metrics summary: {}.", metricsSummary);
+		reportItems.put("性能统计", metricsSummary);
+		if (replayServer != null)
+		{
+			// 负载测试不发送邮件，报告输出至日志。
+			double seconds = (System.currentTimeMillis() - startTime) / 1000.0;
+			reportItems.put("负载测试", String.format(
+				"%d pages in %.1f s, %.2f pages/s; %s",
+				normalPages.size(),
+				seconds,
+				seconds == 0 ? 0.0 : normalPages.size() / seconds,
+				replayServer.summary()
+			));
+			reportItems.forEach((item, value) -> log.info("{}: {}", item, value));
+		}
+		else
+		{
+			metrics.beginPhase(phase("mail"));
+			sendMail(normalPages.size(), backupSucceeded);
+			metrics.endPhase(phase("mail"));
+		}
+		return backupSucceeded;
+	}
+
+	/**
+	 * 性能指标中的阶段名，多个项目时以项目名区分。
+	 */
+	private String phase(String phase)
+	{
+		return name == null ? phase : name + "/" + phase;
+	}
+
+	/**
+	 * 本项目的分类遍历结束。最后一个结束遍历的项目负责写入分类图缓存，并公布其统计。
+	 * 从爬取日志中途恢复、跳过遍历或遍历失败的项目不会请求全部分类页面，此时不清理旧节点。
+	 *
+	 * @param completed 遍历是否完成。
+	 */
+	private void finishTraversal(boolean completed)
+	{
+		traversalFinished = true;
+		if (!completed || !freshTraversal || !traversalNeeded)
+		{
+			ALL_TRAVERSALS_FRESH.set(false);
+		}
+		if (traversalNeeded)
+		{
+			ANY_TRAVERSAL.set(true);
+		}
+		if (TRAVERSING_PROJECTS.decrementAndGet() > 0)
+		{
+			return;
+		}
+		String summary = null;
+		try
+		{
+			if (graphCache != null && ANY_TRAVERSAL.get())
+			{
+				saveCategoryGraph(ALL_TRAVERSALS_FRESH.get());
+				summary = graphCache.summary();
+			}
+		}
+		finally
+		{
+			// 其他项目发送报告前等待此结果，无论写入是否成功都须完成。
+			categoryGraphSummary.complete(summary);
+		}
+	}
+
+	/**
+	 * 按配置启用录制或回放。回放时启动本地的替身服务器，并将两个站点的地址指向它。
+	 *
+	 * @return 是否可以继续执行。回放服务器无法启动时不能继续，以免请求真实的站点。
+	 */
+	private static boolean setupReplay()
+	{
+		ReplayConfig replay = rootConfig.getReplay();
+		if (replay.getMode() == null || replay.getDirectory() == null)
+		{
+			log.error("Replay mode and fixture directory are required.");
+			return false;
+		}
+		try
+		{
+			FixtureStore store = new FixtureStore(Paths.get(replay.getDirectory()));
+			if (replay.getMode() == ReplayMode.RECORD)
+			{
+				HttpUtils.addOutermostInterceptor(new FixtureRecorder(store));
+				log.info("Record responses to \"{}\".", replay.getDirectory());
+				return true;
+			}
+			replayServer = new ReplayServer(store, replay);
+			replayServer.start();
+			String mirrorPath = HttpUrl.get(HttpUtils.getMirrorSiteBackupUrl()).encodedPath();
+			HttpUtils.setSiteUrls(replayServer.getBaseUrl(), replayServer.getBaseUrl() + mirrorPath);
+			log.info("Replay responses from \"{}\".", replay.getDirectory());
+			return true;
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to set up replay mode.", e);
+			return false;
+		}
+	}
+
+	/**
+	 * 按配置写出性能指标。写出失败不影响本次备份。
+	 */
+	private static void writeMetrics()
+	{
+		MetricsConfig metricsConfig = rootConfig.getMetrics();
+		if (metricsConfig == null)
+		{
+			return;
+		}
+		try
+		{
+			if (metricsConfig.getJsonFilePath() != null)
+			{
+				metrics.writeJson(Paths.get(metricsConfig.getJsonFilePath()));
+			}
+			if (metricsConfig.getPrometheusFilePath() != null)
+			{
+				metrics.writePrometheus(Paths.get(metricsConfig.getPrometheusFilePath()));
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to write metrics.", e);
+		}
+	}
+
+	/**
+	 * 打开爬取日志。日志无法打开时，本次执行不记录日志。
+	 */
+	private CrawlJournal openJournal()
+	{
+		try
+		{
+			CrawlJournal result = CrawlJournal.open(config.getJournalFilePath());
+			if (result.isEnabled())
+			{
+				log.info("Crawl journal opened at \"{}\".", config.getJournalFilePath());
+			}
+			return result;
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to open crawl journal. Continue without it.", e);
+			try
+			{
+				return CrawlJournal.open(null);
+			}
+			catch (IOException impossible)
+			{
+				throw new RuntimeException(impossible);
+			}
+		}
+	}
+
+	/**
+	 * 检索作品信息。
+	 * 从参数{@code roots}指定的各个分类页面出发，深度遍历各级子分类页面，
+	 * 各级分类下的条目名视作结果被添加到集合{@code result}中。
+	 * 为了保证不发起重复的请求，各级分类名及分页请求路径会被收集至集合{@code visited}中，
+	 * 多次调用间共享此集合即可跳过已访问的页面。
+	 * 每个请求成功的页面都会以{@code scope}为阶段名写入爬取日志。
+	 */
+	private void traverseCategory(
+		Collection<String> roots,
+		String scope,
+		Set<String> visited,
+		Set<String> result)
+	{
+		BiConsumer<String, CategoryPageParsed> onTraversed =
+			(path, parsed) -> journal.recordPage(scope, path, parsed);
+		if (concurrentTraverser != null)
+		{
+			concurrentTraverser.traverse(roots, visited, result, onTraversed);
+			return;
+		}
+		try (SpillingFrontier frontier = new SpillingFrontier(
+			config.getFrontierMemoryLimit(),
+			config.getFrontierSpillDirectory()))
+		{
+			// 逆序入栈，保证按照参数顺序遍历。
+			List<String> rootList = new ArrayList<>(roots);
+			Collections.reverse(rootList);
+			rootList.forEach(root -> pushUnvisited(frontier, visited, root));
+			while (!frontier.isEmpty())
+			{
+				String currCate = frontier.pop();
+				if (!visited.add(currCate))
+				{
+					// 无视已遍历的页面。入栈时已检查过，但同一页面可能在出栈前被多次发现。
+					continue;
+				}
+
+				// 开始网络请求。
+				CategoryPageParsed cateInfos = requestCategoryPage(currCate);
+				if (cateInfos != null)
+				{
+					onTraversed.accept(currCate, cateInfos);
+				}
+				cateInfos = cateInfos != null ? cateInfos : CategoryPageParsed.EMPTY_RESULT;
+				cateInfos.getNextPagePaths().forEach(path -> pushUnvisited(frontier, visited, path));
+				cateInfos.getSubCategories().forEach(path -> pushUnvisited(frontier, visited, path));
+				result.addAll(cateInfos.getSubPages());
+			}
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to release traversal frontier.", e);
+		}
+	}
+
+	/**
+	 * 只将未访问过的分类页面及分页请求路径入栈。
+	 */
+	private static void pushUnvisited(SpillingFrontier frontier, Set<String> visited, String path)
+	{
+		if (!path.startsWith("Category:")
+		    && !path.startsWith("/index.php?title=Category:"))
+		{
+			return;
+		}
+		if (visited.contains(path))
+		{
+			return;
+		}
+		frontier.push(path);
+	}
+
+
+	/**
+	 * 请求并解析单个分类页面或分页请求路径。
+	 * 多个项目时，同一页面只由最先请求的项目发起请求，其余项目等待并共享其结果。
+	 *
+	 * @return 解析结果，请求失败时返回{@code null}。
+	 */
+	private static CategoryPageParsed requestCategoryPage(String path)
+	{
+		if (sharedCategoryPages == null)
+		{
+			return fetchCategoryPage(path);
+		}
+		CompletableFuture<CategoryPageParsed> created = new CompletableFuture<>();
+		CompletableFuture<CategoryPageParsed> existing = sharedCategoryPages.putIfAbsent(path, created);
+		if (existing != null)
+		{
+			return existing.join();
+		}
+		CategoryPageParsed parsed = null;
+		try
+		{
+			parsed = fetchCategoryPage(path);
+			return parsed;
+		}
+		finally
+		{
+			if (parsed == null)
+			{
+				sharedCategoryPages.remove(path, created);
+			}
+			created.complete(parsed);
+		}
+	}
+
+	private static CategoryPageParsed fetchCategoryPage(String path)
+	{
+		if (graphCache != null)
+		{
+			CategoryPageParsed cached = graphCache.get(path);
+			if (cached != null)
+			{
+				return cached;
+			}
+		}
+		CategoryPageParsed parsed = requestWithRetry(
+			"category",
+			categorySource.request(path),
+			() -> log.info("Try to request category page <{}>.", path),
+			() -> log.warn("Failed to request category page <{}>.", path)
+		);
+		if (parsed != null && graphCache != null)
+		{
+			graphCache.put(path, parsed);
+		}
+		return parsed;
+	}
+
+	/**
+	 * 比对分类图缓存中各分类的成员数，使发生变化的分类失效。
+	 */
+	private static void checkCategoryGraph()
+	{
+		if (!rootConfig.getCategoryGraph().isCheckChanges())
+		{
+			return;
+		}
+		Set<String> categories = graphCache.categories();
+		if (categories.isEmpty())
+		{
+			return;
+		}
+		log.info("Start to check [{}] cached categories for changes.", categories.size());
+		graphCache.applySignatures(categories, requestCategorySignatures(categories));
+	}
+
+	/**
+	 * 补全新分类的成员数签名，并写入分类图缓存。
+	 *
+	 * @param prune 是否丢弃本次未遍历到的节点。
+	 */
+	private static void saveCategoryGraph(boolean prune)
+	{
+		if (rootConfig.getCategoryGraph().isCheckChanges())
+		{
+			Set<String> unsigned = graphCache.categoriesWithoutSignature();
+			if (!unsigned.isEmpty())
+			{
+				log.info("Start to request member counts of [{}] new categories.", unsigned.size());
+				graphCache.putSignatures(requestCategorySignatures(unsigned));
+			}
+		}
+		try
+		{
+			graphCache.save(prune);
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to save category graph.", e);
+		}
+		log.info("Category graph: {}.", graphCache.summary());
+	}
+
+	/**
+	 * 批量检索分类的成员数签名。
+	 *
+	 * @return key = 分类名; value = 成员数签名。请求失败的分类不包含在内。
+	 */
+	private static Map<String, String> requestCategorySignatures(Collection<String> categories)
+	{
+		Map<String, String> result = new HashMap<>();
+		List<String> categoryList = new ArrayList<>(categories);
+		for (int from = 0; from < categoryList.size(); from += MAX_TITLES_PER_QUERY)
+		{
+			List<String> batch = categoryList.subList(
+				from,
+				Math.min(from + MAX_TITLES_PER_QUERY, categoryList.size())
+			);
+			String batchDesc = String.format("[%d - %d / %d]",
+				from + 1, from + batch.size(), categoryList.size());
+			Single<Map<String, String>> request = HomeSiteService
+				.getInstance()
+				.getCategoryInfo(String.join("|", batch))
+				.map(raw -> {
+					ApiBaseResponse<Query> body = Objects.requireNonNull(raw.body());
+					return body.getQuery() == null
+						? Collections.emptyMap()
+						: Query.categorySignatures(body.getQuery());
+				});
+			Map<String, String> signatures = requestWithRetry(
+				"categoryinfo",
+				request,
+				() -> log.info("Try to request member counts of categories {}.", batchDesc),
+				() -> log.warn("Failed to request member counts of categories {}.", batchDesc)
+			);
+			if (signatures != null)
+			{
+				for (String category : batch)
+				{
+					String signature = signatures.get(category);
+					if (signature != null)
+					{
+						result.put(category, signature);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 带重试的请求方法。
+	 * 重试由{@link RetryPolicy}在调度器上异步等待，调用线程只在最终结果返回前阻塞，不会逐轮休眠。
+	 * 如果请求成功且未配置全局请求速率上限或自适应节奏控制，则延迟初始指定时间后返回请求结果；
+	 * 否则由{@link HttpUtils#HOME_SITE_RATE_LIMITER}限速，请求成功后直接返回。
+	 * 如果重试策略放弃请求，则返回{@code null}。
+	 *
+	 * @param <R>           返回结果的类型。
+	 * @param endpoint      接口名，同名接口共享熔断器。
+	 * @param request       请求，每次订阅即发起一次请求。
+	 * @param beforeRequest 每轮请求前执行此方法。
+	 * @param onFail        每轮请求失败后执行此方法。
+	 */
+	private static <R> R requestWithRetry(
+		String endpoint,
+		Single<R> request,
+		Runnable beforeRequest,
+		Runnable onFail)
+	{
+		// 每次订阅即一次请求，分别计时。
+		Single<R> timed = Single.defer(() -> {
+			long start = System.nanoTime();
+			return request.doOnEvent((value, error) ->
+				metrics.recordRequest(endpoint, System.nanoTime() - start, error == null));
+		});
+		Single<R> result = timed
+			.doOnSubscribe(disposable -> beforeRequest.run())
+			// 重试定时器触发后重新订阅，阻塞的请求须回到IO线程执行。
+			.subscribeOn(Schedulers.io())
+			.compose(retryPolicy.apply(endpoint, onFail));
+		if (pacer == null && rootConfig.getRequestsPerSecond() <= 0)
+		{
+			result = result.delay(rootConfig.getRequestIntervalTime(), TimeUnit.MILLISECONDS);
+		}
+		return result.onErrorComplete().blockingGet();
+	}
 
-	public static void main(String[] args)
+	/**
+	 * 检索作品的作者。多个项目时，其他项目已请求或正在请求的作品不再重复请求，等待并共享其结果。
+	 *
+	 * @return key = 作品名; value = 作者名集合。请求失败的作品对应空集合。
+	 */
+	private Map<String, Set<String>> requestCreators(Collection<String> titles)
 	{
-		// 读取配置文件。
-		String definedConfigFile = args.length > 0 ? args[0] : null;
-		if (definedConfigFile == null)
+		if (sharedCreators == null)
 		{
-			log.info("use default config file.");
+			return fetchCreators(titles);
 		}
-		else
+		List<String> claimed = new ArrayList<>();
+		Map<String, CompletableFuture<Set<String>>> created = new HashMap<>();
+		Map<String, CompletableFuture<Set<String>>> others = new LinkedHashMap<>();
+		for (String title : titles)
 		{
-			log.info("use assigned config file at\"{}\".", definedConfigFile);
+			CompletableFuture<Set<String>> future = new CompletableFuture<>();
+			CompletableFuture<Set<String>> existing = sharedCreators.putIfAbsent(title, future);
+			if (existing == null)
+			{
+				claimed.add(title);
+				created.put(title, future);
+			}
+			else
+			{
+				others.put(title, existing);
+			}
 		}
-		config = readConfig(definedConfigFile);
-		if (config == null)
+		Map<String, Set<String>> result = new LinkedHashMap<>();
+		try
 		{
-			log.error("missing config file!");
-			return;
+			result.putAll(fetchCreators(claimed));
 		}
-		log.info("Success to load config:{}", new Gson().toJson(config));
-
-		if (config.isPrintExceptionsToLog())
+		finally
 		{
-			RxJavaPlugins.setErrorHandler((th) -> log.info(
-				"global rxjava error catch: ",
-				th
-			));
-		}
-
-		// 请求作品名。
-		log.info("Start to request titles.");
-		Set<String> worksTitles = new LinkedHashSet<>();
-		traverseCategory(ROOT_PATH, worksTitles);
-		worksTitles.removeIf(title -> title.startsWith("/index.php?title=Category:"));
-		log.info("Success to request all titles. Collection size is [{}].",
-			worksTitles.size());
-
-		// 请求各作品下页面。
-		log.info("Start to request normal pages under work categories.");
-		Set<String> normalPages = new LinkedHashSet<>(worksTitles);
-		String[] titleArray = worksTitles.toArray(new String[0]);
-		for (int i = 0; i < titleArray.length; i++)
-		{
-			String category = titleArray[i];
-			log.info("Start to request pages under category <{}>. Task progress: [{} / {}]",
-				"Category:" + category, i + 1, titleArray.length);
-			traverseCategory("Category:" + category, normalPages);
-			log.info("Start to request creators of work <{}>. ", category);
-			Set<String> creators = requestCreators(category);
-			normalPages.addAll(creators);
-			log.info("Succeed to find [{}] creators of work <{}>. ", creators.size(), category);
+			created.forEach((title, future) ->
+				future.complete(result.getOrDefault(title, Collections.emptySet())));
 		}
-		normalPages.removeIf(title -> title.startsWith("/index.php?title=Category:"));
-		log.info("Success to request all normal pages. Page collection size is [{}].",
-			normalPages.size());
-//		normalPages.forEach(System.out::println);
-
-		// 请求镜像站备份文件。
-		log.info("Start to download backup file.");
-		requestWithRetry(
-			() -> downloadBackupFile(normalPages),
-			() -> log.info("Try to download backup file."),
-			() -> log.warn("Failed to download backup file.")
-		);
-		log.info("Success to download backup file.");
-
-		// 压缩备份文件。
-		compressBackupFile();
-
-		// 发送报告邮件。
-		sendMail(normalPages.size());
+		// 共享的结果可能来自失败的请求，不写入本项目的爬取日志，恢复时重新请求。
+		others.forEach((title, future) -> result.put(title, future.join()));
+		return result;
 	}
 
 	/**
-	 * 检索作品信息。
-	 * 从参数{@code rootCategory}指定的根分类页面出发，深度遍历各级子分类页面，
-	 * 各级分类下的条目名视作结果被添加到集合{@code result}中。
-	 * 此外，为了保证不发起重复的请求，各级分类名及分页请求路径也会被收集至结果中，用于筛除已访问的页面。
-	 * 因此，需要在此方法执行完之后，清除全部形如{@code ^/index\.php.*}的数据项。
+	 * 批量请求作品的作者。
+	 * 每次请求至多包含{@link #MAX_TITLES_PER_QUERY}个作品名，同一批次的分页结果通过{@code clcontinue}继续请求。
+	 *
+	 * @return key = 作品名; value = 作者名集合。请求失败的作品对应空集合。
 	 */
-	private static void traverseCategory(String rootCategory, Set<String> result)
+	private Map<String, Set<String>> fetchCreators(Collection<String> titles)
 	{
-		ArrayDeque<String> queue = new ArrayDeque<>();
-		queue.addLast(rootCategory);
-		while (!queue.isEmpty())
+		Map<String, Set<String>> result = new LinkedHashMap<>();
+		List<String> titleList = new ArrayList<>(titles);
+		for (int from = 0; from < titleList.size(); from += MAX_TITLES_PER_QUERY)
 		{
-			String currCate = queue.removeLast();
-			if (result.contains(currCate))
+			List<String> batch = titleList.subList(
+				from,
+				Math.min(from + MAX_TITLES_PER_QUERY, titleList.size())
+			);
+			String batchTitles = String.join("|", batch);
+			String batchDesc = String.format("[%d - %d / %d]",
+				from + 1, from + batch.size(), titleList.size());
+			Map<String, String> continueParams = Collections.emptyMap();
+			boolean batchFailed = false;
+			do
 			{
-				// 无视已遍历的页面。
-				continue;
+				final Map<String, String> currContinueParams = continueParams;
+				Single<CreatorsResponse> request = HomeSiteService
+					.getInstance()
+					.getCategories(batchTitles, currContinueParams)
+					.map(raw -> raw.code() == 404
+						? new CreatorsResponse()
+						: Objects.requireNonNull(raw.body()));
+				CreatorsResponse response = requestWithRetry(
+					"categories",
+					request,
+					() -> log.info("Try to request categories of works {}.", batchDesc),
+					() -> log.warn("Failed to request categories of works {}.", batchDesc)
+				);
+				if (response == null)
+				{
+					batchFailed = true;
+					break;
+				}
+				response.getCreators().forEach((title, creators) -> result
+					.computeIfAbsent(title, k -> new LinkedHashSet<>())
+					.addAll(creators));
+				continueParams = response.getContinueParams();
 			}
-			if (!currCate.startsWith("Category:")
-			    && !currCate.startsWith("/index.php?title=Category:"))
+			while (continueParams != null && !continueParams.isEmpty());
+			if (!batchFailed)
 			{
-				continue;
+				for (String title : batch)
+				{
+					journal.recordCreators(
+						title,
+						result.getOrDefault(title, Collections.emptySet())
+					);
+				}
 			}
+		}
+		for (String title : titleList)
+		{
+			result.putIfAbsent(title, Collections.emptySet());
+		}
+		return result;
+	}
 
-			// 开始网络请求。
-			Supplier<CategoryPageParsed> request = () -> mapCategoryRequest(currCate)
-				.map(CategoryPageParsed::parse)
-				.onErrorComplete()
-				.blockingGet();
-			CategoryPageParsed cateInfos = requestWithRetry(
+	/**
+	 * 批量检索页面的最新修订版本号。
+	 *
+	 * @return key = 页面名; value = 最新修订版本号。请求失败的页面对应{@link IncrementalBackup#UNKNOWN_REVISION}，
+	 * 不存在的页面对应{@link IncrementalBackup#MISSING_REVISION}。
+	 */
+	private static Map<String, Long> requestRevisions(Collection<String> titles)
+	{
+		Map<String, Long> result = new HashMap<>();
+		List<String> titleList = new ArrayList<>(titles);
+		for (int from = 0; from < titleList.size(); from += MAX_TITLES_PER_QUERY)
+		{
+			List<String> batch = titleList.subList(
+				from,
+				Math.min(from + MAX_TITLES_PER_QUERY, titleList.size())
+			);
+			String batchTitles = String.join("|", batch);
+			String batchDesc = String.format("[%d - %d / %d]",
+				from + 1, from + batch.size(), titleList.size());
+			Single<Map<String, Long>> request = HomeSiteService
+				.getInstance()
+				.getPageInfo(batchTitles)
+				.map(raw -> {
+					ApiBaseResponse<Query> body = Objects.requireNonNull(raw.body());
+					return body.getQuery() == null
+						? Collections.emptyMap()
+						: Query.revisions(body.getQuery());
+				});
+			Map<String, Long> revisions = requestWithRetry(
+				"pageinfo",
 				request,
-				() -> log.info("Try to request category page <{}>.", currCate),
-				() -> log.warn("Failed to request category page <{}>.", currCate)
+				() -> log.info("Try to request revisions of pages {}.", batchDesc),
+				() -> log.warn("Failed to request revisions of pages {}.", batchDesc)
 			);
-			cateInfos = cateInfos != null ? cateInfos : CategoryPageParsed.EMPTY_RESULT;
-			queue.addAll(cateInfos.getNextPagePaths());
-			queue.addAll(cateInfos.getSubCategories());
-			result.addAll(cateInfos.getSubPages());
+			for (String title : batch)
+			{
+				result.put(title, revisions == null
+					? IncrementalBackup.UNKNOWN_REVISION
+					: revisions.getOrDefault(title, IncrementalBackup.MISSING_REVISION));
+			}
 		}
+		return result;
+	}
+
+	@SneakyThrows
+	private static boolean isCompleteDocument(Path path)
+	{
+		return ChunkedExporter.isCompleteDocument(path);
 	}
 
+	private ChunkedExporter createChunkedExporter()
+	{
+		return new ChunkedExporter(
+			config.getExportChunkSize(),
+			config.getExportParallelism(),
+			config.getBufferSize(),
+			// 不完整的块视作失败，交由重传处理。
+			(chunk, target, description) -> requestWithRetry(
+				"export",
+				Single.fromCallable(() -> downloadBackupFile(chunk, target) != null
+				                          && isCompleteDocument(target) ? target : null),
+				() -> log.info("Try to download backup {}.", description),
+				() -> log.warn("Failed to download backup {}.", description)
+			) != null
+		);
+	}
 
 	/**
-	 * 自适应的请求重传方法，此方法是阻塞性的，内部会执行强制性的线程等待。
-	 * 如果请求成功则等待初始指定时间后返回请求结果。
-	 * 如果请求失败则采用指数退避算法更新线程等待时间，在此轮等待结束后尝试进入下一轮请求。
-	 * 如果等待时间已超出指定的最大阈值，则判定请求无法完成，并返回{@code null}。
+	 * 下载备份文件并同时写入压缩文件。
+	 * 网络线程将数据写入有界缓冲区，由压缩线程取出并压缩，两者互相重叠；
+	 * 配置了保留原始备份文件时，数据会同时写入{@link RootConfig#getOutputFilePath()}。
+	 * 分块导出时，各块仍先下载至临时文件，合并的结果直接写入压缩文件。
 	 *
-	 * @param <R>           返回结果的类型。
-	 * @param request       请求方法，此方法应当是可重复的。
-	 * @param beforeRequest 每轮请求前执行此方法。
-	 * @param onFail        每轮请求失败后执行此方法。
+	 * @return 是否成功。
 	 */
-	private static <R> R requestWithRetry(
-		Supplier<R> request,
-		Runnable beforeRequest,
-		Runnable onFail)
+	private boolean downloadBackupArchive(Collection<String> pages)
+	{
+		rawBackupSize = 0;
+		if (config.getExportChunkSize() > 0)
+		{
+			return createChunkedExporter().export(
+				pages,
+				config.getOutputFilePath(),
+				this::openBackupArchiveSink
+			);
+		}
+		return requestWithRetry(
+			"export",
+			Single.fromCallable(() -> {
+				// 每次重试都重新创建压缩文件。
+				try (OutputStream sink = openBackupArchiveSink())
+				{
+					return writeBackupFile(pages, sink, config.getCompressedFilePath());
+				}
+			}),
+			() -> log.info("Try to download and compress backup file."),
+			() -> log.warn("Failed to download and compress backup file.")
+		) != null;
+	}
+
+	/**
+	 * 删除失败的流式压缩留下的文件。
+	 * 最后一次尝试失败时，关闭输出流仍会写出格式完整但内容不全的压缩文件及其标题索引，不能当作备份使用。
+	 */
+	private void discardPartialArchive()
 	{
-		int epoch = 0;
-		long waitInterval = config.getRequestIntervalTime();
-		while (waitInterval <= MAX_WAIT_INTERVAL)
+		List<String> partialFiles = new ArrayList<>();
+		partialFiles.add(config.getCompressedFilePath());
+		partialFiles.add(BackupIndex.indexPathOf(config.getCompressedFilePath()));
+		if (config.isKeepRawBackup())
+		{
+			partialFiles.add(config.getOutputFilePath());
+		}
+		for (String file : partialFiles)
 		{
 			try
 			{
-				// 执行
-				beforeRequest.run();
-				R res = request.get();
-				if (res != null)
+				if (Files.deleteIfExists(Paths.get(file)))
 				{
-					log.info(
-						"Thread will sleep for [{}] milliseconds in the final epoch.",
-						config.getRequestIntervalTime()
-					);
-					Thread.sleep(config.getRequestIntervalTime());
-					return res;
+					log.info("Partial backup file \"{}\" deleted.", file);
 				}
 			}
-			catch (Exception ignored)
+			catch (IOException e)
 			{
+				log.warn("Failed to delete partial backup file \"{}\".", file, e);
+			}
+		}
+	}
 
+	/**
+	 * 打开写入压缩文件的输出流，关闭时等待压缩完成。
+	 */
+	private OutputStream openBackupArchiveSink() throws IOException
+	{
+		rawBackupSize = 0;
+		OutputStream archive = new AsyncOutputStream(
+			openBackupArchive(),
+			PIPELINE_QUEUE_BLOCKS,
+			config.getBufferSize(),
+			"backup-compressor"
+		);
+		OutputStream sink = config.isKeepRawBackup()
+			? new TeeOutputStream(archive, Files.newOutputStream(Paths.get(config.getOutputFilePath())))
+			: archive;
+		if (repository != null)
+		{
+			repositorySnapshot = repository.openSnapshot(snapshotCarriedOver, snapshotRemovedPages);
+			sink = new TeeOutputStream(sink, isolateRepositorySnapshot(repositorySnapshot));
+		}
+		// 每次尝试重新收集，失败的尝试中的版本号不会被记录。
+		ExportRevisionCollector revisionCollector = new ExportRevisionCollector();
+		exportedRevisions = revisionCollector.getRevisions();
+		sink = new TeeOutputStream(sink, revisionCollector);
+		return new FilterOutputStream(sink)
+		{
+			@Override
+			public void write(byte[] b, int off, int len) throws IOException
+			{
+				out.write(b, off, len);
+				rawBackupSize += len;
 			}
-			onFail.run();
-			log.warn(
-				"Failed to request data. " +
-				"Thread will sleep for [{}] milliseconds in epoch [{}].",
-				waitInterval, epoch
+		};
+	}
+
+	/**
+	 * 打开去重备份仓库。仓库无法打开时，本次不写入快照。
+	 *
+	 * @param plan 增量备份计划，增量导出时快照将继承上一份快照中未变化的页面。
+	 */
+	private void openRepository(IncrementalBackup.Plan plan)
+	{
+		try
+		{
+			repository = BackupRepository.open(
+				config.getRepository().getDirectory(),
+				config.getRepository().getPackSize()
 			);
-			try
+			snapshotCarriedOver = plan != null && !plan.isFull();
+			snapshotRemovedPages = plan == null ? Collections.emptyList() : plan.getRemovedPages();
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to open backup repository. Continue without it.", e);
+		}
+	}
+
+	/**
+	 * 隔离仓库快照的写入错误：仓库是备份文件的附带产物，其失败只放弃本次快照，不影响备份文件的写入。
+	 */
+	private OutputStream isolateRepositorySnapshot(BackupRepository.SnapshotWriter snapshot)
+	{
+		return new OutputStream()
+		{
+			private boolean failed;
+
+			@Override
+			public void write(int b)
 			{
-				Thread.sleep(waitInterval);
+				write(new byte[]{(byte) b}, 0, 1);
 			}
-			catch (InterruptedException e)
+
+			@Override
+			public void write(byte[] b, int off, int len)
 			{
-				waitInterval = Long.MAX_VALUE;
-				continue;
+				if (failed)
+				{
+					return;
+				}
+				try
+				{
+					snapshot.write(b, off, len);
+				}
+				catch (IOException e)
+				{
+					fail(e);
+				}
 			}
-			epoch++;
-			waitInterval = WAIT_INTERVAL_UPGRADE_RULE.applyAsLong(waitInterval);
-		}
-		log.error("The request failed at epoch [{}].", epoch);
-		return null;
-	}
 
-	private static Set<String> requestCreators(String title)
-	{
-		Supplier<Set<String>> request = () -> {
-			Response<ApiBaseResponse<Query>> raw = HomeSiteService
-				.getInstance()
-				.getCategories(title)
-				.onErrorComplete()
-				.blockingGet();
-			if (raw == null)
+			@Override
+			public void close()
 			{
-				throw new RuntimeException();
+				try
+				{
+					snapshot.close();
+				}
+				catch (IOException e)
+				{
+					if (!failed)
+					{
+						fail(e);
+					}
+				}
 			}
-			if (raw.code() == 404)
+
+			private void fail(IOException e)
 			{
-				return Collections.emptySet();
+				failed = true;
+				log.error("Failed to write repository snapshot. The snapshot is discarded.", e);
+				if (repositorySnapshot == snapshot)
+				{
+					repositorySnapshot = null;
+				}
 			}
-			return Query.flat(Objects.requireNonNull(raw.body())
-					.getQuery())
-				.values()
-				.stream()
-				.flatMap(Collection::stream)
-				.collect(Collectors.toSet());
 		};
-		Set<String> result = requestWithRetry(
-			request,
-			() -> log.info("Try to request categories of page <{}>.", title),
-			() -> log.warn("Failed to request categories of page <{}>.", title)
-		);
-		return result != null ? result : Collections.emptySet();
 	}
 
-	private static Single<Response<ResponseBody>> mapCategoryRequest(String title)
+	/**
+	 * 取得本次导出文档中各页面实际的修订版本号。
+	 * 流式压缩时使用下载过程中收集的结果，否则扫描已下载的备份文件。
+	 *
+	 * @return 无法取得时为{@code null}，例如从爬取日志恢复了压缩文件而原始文件已被删除。
+	 */
+	private Map<String, Long> collectExportedRevisions()
+	{
+		if (exportedRevisions != null)
+		{
+			return exportedRevisions;
+		}
+		Path outputFile = Paths.get(config.getOutputFilePath());
+		if (!Files.isRegularFile(outputFile))
+		{
+			log.warn("Raw backup file \"{}\" is missing. Exported revisions are unknown.", outputFile);
+			return null;
+		}
+		try
+		{
+			return ExportRevisionCollector.collect(outputFile, config.getBufferSize());
+		}
+		catch (IOException e)
+		{
+			log.warn("Failed to read exported revisions from \"{}\".", outputFile, e);
+			return null;
+		}
+	}
+
+	/**
+	 * 将已下载的备份文件写入去重备份仓库。
+	 */
+	private void writeRepositorySnapshot()
+	{
+		if (repository == null)
+		{
+			return;
+		}
+		log.info("Start to write repository snapshot.");
+		try (InputStream is = Files.newInputStream(Paths.get(config.getOutputFilePath())))
+		{
+			repositorySnapshot = repository.openSnapshot(snapshotCarriedOver, snapshotRemovedPages);
+			try (OutputStream os = repositorySnapshot)
+			{
+				byte[] buffer = new byte[config.getBufferSize()];
+				int i;
+				while ((i = is.read(buffer)) >= 0)
+				{
+					os.write(buffer, 0, i);
+				}
+			}
+		}
+		catch (IOException e)
+		{
+			log.error("Failed to write repository snapshot.", e);
+			repositorySnapshot = null;
+		}
+	}
+
+	private void reportRepositorySnapshot()
+	{
+		if (repositorySnapshot == null)
+		{
+			return;
+		}
+		reportItems.put("仓库快照", String.format(
+			"新增数据段 %d 个（%d bytes），复用数据段 %d 个",
+			repositorySnapshot.getStoredBlobs(),
+			repositorySnapshot.getStoredBytes(),
+			repositorySnapshot.getReusedBlobs()
+		));
+	}
+
+	/**
+	 * 从镜像站导出指定页面至文件{@code target}。
+	 */
+	@SneakyThrows
+	private Object downloadBackupFile(Collection<String> pages, Path target)
 	{
-		return title.startsWith("Category:")
-			? HomeSiteService.getInstance().get(title)
-			: HomeSiteService.getInstance().getUrl(title);
+		try (OutputStream out = Files.newOutputStream(target))
+		{
+			return writeBackupFile(pages, out, target.getFileName().toString());
+		}
 	}
 
+	/**
+	 * 从镜像站导出指定页面，写入输出流{@code out}。
+	 *
+	 * @param name 用于日志的输出名称。
+	 */
 	@SneakyThrows
-	private static Object downloadBackupFile(Collection<String> pages)
+	private Object writeBackupFile(Collection<String> pages, OutputStream out, String name)
 	{
 		String pagesForBackup = pages.stream().sorted().collect(Collectors.joining("\n"));
-		Call call = MIRROR_SITE_CLIENT
+		Call call = HttpUtils.getMirrorSiteClient()
 			.newCall(new Request.Builder()
-				.url(MIRROR_SITE_BACKUP_URL)
+				.url(HttpUtils.getMirrorSiteBackupUrl())
 				.post(new FormBody.Builder()
 					.add("pages", pagesForBackup)
 					.add("templates", "1")
@@ -289,21 +1666,20 @@ public class Main
 		     ResponseBody body = response.body();
 		     InputStream is = (body == null)
 			     ? null
-			     : body.byteStream();
-		     OutputStream fos = Files
-			     .newOutputStream(Paths.get(config.getOutputFilePath()))
+			     : body.byteStream()
 		)
 		{
 			if (body == null)
 			{
 				throw new NullPointerException("Null body");
 			}
-			log.info("Downloading connection opened.");
+			log.info("Downloading connection opened for \"{}\".", name);
 			byte[] buffer = new byte[config.getBufferSize()];
 			AtomicLong downloadedSize = new AtomicLong(0);
 			AtomicBoolean downloadFinished = new AtomicBoolean(false);
 			Completable.fromAction(() -> {
-						log.info("Downloaded backup file size: {}", downloadedSize);
+						log.info("Downloaded backup file \"{}\" size: {}",
+							name, downloadedSize);
 						Thread.sleep(1000);
 					}
 				)
@@ -320,8 +1696,9 @@ public class Main
 					{
 						break;
 					}
-					fos.write(buffer, 0, i);
+					out.write(buffer, 0, i);
 					downloadedSize.addAndGet(i);
+					metrics.addBytes(phase("download"), i);
 				}
 			}
 			finally
@@ -333,21 +1710,16 @@ public class Main
 		return pages;
 	}
 
-	private static void compressBackupFile()
+	private void compressBackupFile()
 	{
 		log.info("start compress file.");
+		long start = System.currentTimeMillis();
+		long inputSize = 0;
 		try (
-			SevenZOutputFile outArchive =
-				new SevenZOutputFile(new File(config.getCompressedFilePath()));
+			OutputStream archive = openBackupArchive();
 			InputStream is = Files.newInputStream(Paths.get(config.getOutputFilePath()))
 		)
 		{
-			SevenZArchiveEntry entry = new SevenZArchiveEntry();
-			entry.setName("backup.xml");
-			Date date = new Date();
-			entry.setCreationDate(date);
-			entry.setAccessDate(date);
-			outArchive.putArchiveEntry(entry);
 			byte[] buffer = new byte[config.getBufferSize()];
 			while (true)
 			{
@@ -356,139 +1728,190 @@ public class Main
 				{
 					break;
 				}
-				outArchive.write(buffer, 0, i);
+				archive.write(buffer, 0, i);
+				inputSize += i;
 			}
-			outArchive.closeArchiveEntry();
 		}
 		catch (Exception e)
 		{
 			throw new RuntimeException("Failed to compress file", e);
 		}
+		reportCompression(inputSize, System.currentTimeMillis() - start);
 		log.info("finish compress file.");
 	}
 
-	private static void sendMail(int pageSize)
+	/**
+	 * 按配置的压缩格式打开压缩文件，写入的数据即为备份文件的内容。
+	 */
+	private OutputStream openBackupArchive() throws IOException
 	{
-		log.info("Try to send report mail.");
-		List<Completable> tasks = Objects
-			.requireNonNull(config.getEmailConfig().getReceivers())
-			.stream()
-			.map(receiver -> Completable.fromAction(() -> sendSingleMail(
-					receiver.getAddress(),
-					Objects.requireNonNullElse(
-						receiver.getMailSubject(),
-						Objects.requireNonNull(config.getEmailConfig().getMailSubject())
-					),
-					"<h1>" + Objects.requireNonNull(config.getEmailConfig().getMailSubject())
-					+ "</h1>" + "<h3>已完成备份！</h3><hr/>"
-					+ "<div>备份页数：" + pageSize + "</div>"
-					+ "<div>备份文件大小：" + getBackupFileSize() + " bytes</div>"
-					+ "<div>备份压缩后大小：" + getCompressedFileSize() +
-					" bytes</div>"
-					+ "<div>备份目录磁盘可用空间：" + getDiskAvailableSpace() +
-					"bytes</div>",
-					generateAttachments(
-						receiver.isSendAttachment(),
-						receiver.isSendErrorStackTrace()
-					)
-				))
-				.doOnError(th -> log.error(
-					"Failed to send mail to\"{}\"",
-					receiver.getAddress(),
-					th
-				))
-				.onErrorComplete())
-			.collect(Collectors.toList());
-		Completable.merge(tasks)
-			.subscribeOn(Schedulers.io())
-			.observeOn(Schedulers.io())
-			.doOnError(e -> log.error("Failed to send success mail.", e))
-			.blockingSubscribe();
-		log.info("Succeed to send report mail.");
+		CompressionConfig compression = getCompressionConfig();
+		LZMA2Options options = new LZMA2Options(compression.getPreset());
+		if (compression.getDictionarySize() > 0)
+		{
+			options.setDictSize(compression.getDictionarySize());
+		}
+		if (compression.getCodec() == CompressionCodec.XZ)
+		{
+			int blockSize = compression.getBlockSize() > 0
+				? compression.getBlockSize()
+				: options.getDictSize() * 3;
+			int threads = compressionThreads(compression, options, blockSize);
+			log.info("Compress backup file as xz with preset [{}], dictionary [{}] bytes, "
+			         + "block [{}] bytes and [{}] threads.",
+				compression.getPreset(), options.getDictSize(), blockSize, threads);
+			ParallelXzOutputStream xz = new ParallelXzOutputStream(
+				new BufferedOutputStream(
+					Files.newOutputStream(Paths.get(config.getCompressedFilePath())),
+					config.getBufferSize()
+				),
+				options,
+				blockSize,
+				threads,
+				compression.isTitleIndex()
+			);
+			return compression.isTitleIndex()
+				? new TitleIndexingOutputStream(xz, config.getCompressedFilePath())
+				: xz;
+		}
+		if (compression.isTitleIndex())
+		{
+			log.warn("Title index is only supported by the xz codec. Skip building it.");
+		}
+		return new SevenZEntryOutputStream(
+			new File(config.getCompressedFilePath()),
+			"backup.xml",
+			options
+		);
+	}
+
+	/**
+	 * 确定分块压缩的线程数。未指定时取可用的处理器数，但不超过内存预算所能容纳的线程数。
+	 * 每个线程约占用编码器内存与3倍块大小：至多2个进行中的块，以及块的压缩结果。
+	 */
+	private static int compressionThreads(CompressionConfig compression, LZMA2Options options, int blockSize)
+	{
+		long perThread = options.getEncoderMemoryUsage() * 1024L + blockSize * 3L;
+		long memoryLimit = compression.getMemoryLimit() > 0
+			? compression.getMemoryLimit()
+			: Runtime.getRuntime().maxMemory() / 4;
+		long affordable = Math.max(1, memoryLimit / perThread);
+		if (compression.getThreads() > 0)
+		{
+			if (compression.getThreads() > affordable)
+			{
+				log.warn("[{}] compression threads need about [{}] bytes, "
+				         + "exceeding the memory budget of [{}] bytes.",
+					compression.getThreads(), perThread * compression.getThreads(), memoryLimit);
+			}
+			return compression.getThreads();
+		}
+		int processors = Runtime.getRuntime().availableProcessors();
+		if (affordable < processors)
+		{
+			log.info("Compression threads are limited to [{}] by the memory budget of [{}] bytes.",
+				affordable, memoryLimit);
+		}
+		return (int) Math.min(processors, affordable);
+	}
+
+	private CompressionConfig getCompressionConfig()
+	{
+		return config.getCompression() == null ? new CompressionConfig() : config.getCompression();
 	}
 
 	/**
-	 * 发送邮件。
+	 * 输出压缩的吞吐量与压缩率。
 	 *
-	 * @param attachments key = 附件文件路径; value = 附件名
+	 * @param inputSize 压缩前的字节数。
+	 * @param millis    压缩耗时。
 	 */
-	@SneakyThrows
-	private static void sendSingleMail(
-		final String receiverAddr,
-		final String subject,
-		final String content,
-		final Map<String, String> attachments
-	)
+	private void reportCompression(long inputSize, long millis)
+	{
+		long outputSize = getCompressedFileSize();
+		String summary = String.format(
+			"%s, %d -> %d bytes, ratio %.2f%%, %.2f MB/s, %d ms",
+			getCompressionConfig().getCodec() == CompressionCodec.XZ ? "xz" : "7z",
+			inputSize,
+			outputSize,
+			inputSize == 0 ? 0.0 : outputSize * 100.0 / inputSize,
+			millis == 0 ? 0.0 : inputSize / 1048576.0 / (millis / 1000.0),
+			millis
+		);
+		log.info("Compression summary: {}.", summary);
+		metrics.addBytes(phase("compress"), inputSize);
+		reportItems.put("压缩统计", summary);
+	}
+
+	/**
+	 * @param backupSucceeded 备份是否成功。失败时正文注明失败，且不附带备份文件。
+	 */
+	private void sendMail(int pageSize, boolean backupSucceeded)
 	{
-		String emailHost = Objects.requireNonNull(config.getEmailConfig().getEmailHost());
-		String transportType =
-			Objects.requireNonNull(config.getEmailConfig().getTransportType());
-		String fromUser = Objects.requireNonNull(config.getEmailConfig().getFromUser());
-		String fromEmail = Objects.requireNonNull(config.getEmailConfig().getFromEmail());
-		String authCode = Objects.requireNonNull(config.getEmailConfig().getAuthCode());
-		Properties props = new Properties();
-		props.setProperty(
-			"mail.transport.protocol",
-			transportType
+		log.info("Try to send report mail.");
+		EmailConfig emailConfig = config.getEmailConfig();
+		String mailSubject = Objects.requireNonNull(emailConfig.getMailSubject());
+		// 各收件人的正文相同，只生成一次。
+		String content = "<h1>" + mailSubject
+		                 + "</h1>" + (backupSucceeded ? "<h3>已完成备份！</h3><hr/>" : "<h3>备份失败！</h3><hr/>")
+		                 + "<div>备份页数：" + pageSize + "</div>"
+		                 + "<div>备份文件大小：" + getBackupFileSize() + " bytes</div>"
+		                 + "<div>备份压缩后大小：" + getCompressedFileSize() +
+		                 " bytes</div>"
+		                 + "<div>备份目录磁盘可用空间：" + getDiskAvailableSpace() +
+		                 "bytes</div>"
+		                 + reportItems.entrySet()
+			                 .stream()
+			                 .map(item -> "<div>" + item.getKey() + "：" + item.getValue() + "</div>")
+			                 .collect(Collectors.joining());
+		RetryPolicy mailRetryPolicy = new RetryPolicy(
+			emailConfig.getRetry() == null ? DEFAULT_MAIL_RETRY : emailConfig.getRetry(),
+			DEFAULT_MAIL_RETRY.getInitialDelay(),
+			Schedulers.computation(),
+			metrics
 		);
-		props.setProperty("mail.host", emailHost);
-		props.setProperty("mail.user", fromUser);
-		props.setProperty("mail.from", fromEmail);
-		Session session = Session.getInstance(props, null);
-		// session.setDebug(true);
-		MimeMessage message = new MimeMessage(session);
-		InternetAddress from = new InternetAddress(fromEmail);
-		message.setFrom(from);
-		InternetAddress to = new InternetAddress(receiverAddr);
-		message.setRecipient(Message.RecipientType.TO, to);
-		message.setSubject(subject);
-		Multipart multipart = new MimeMultipart();
-		BodyPart textPart = new MimeBodyPart();
-		textPart.setContent(content, "text/html;charset=utf8");
-		multipart.addBodyPart(textPart);
-		for (Map.Entry<String, String> entry : attachments.entrySet())
-		{
-			String path = Objects.requireNonNull(entry.getKey());
-			String fileName = Objects.requireNonNull(entry.getValue());
-			File f = new File(path);
-			if (!f.isFile() || !f.canRead())
-			{
-				log.error("Failed to find file\"{}\"", path);
-			}
-
-			BodyPart attachmentPart = new MimeBodyPart();
-			DataSource source = new FileDataSource(f);
-			attachmentPart.setDataHandler(new DataHandler(source));
-			attachmentPart.setFileName(fileName);
-			multipart.addBodyPart(attachmentPart);
-		}
-		message.setContent(multipart);
-		message.saveChanges();
-		Transport transport = session.getTransport();
-		transport.connect(emailHost, fromEmail, authCode);
-		transport.sendMessage(message, message.getAllRecipients());
-		log.info("success to send mail to \"{}\"", to);
-	}
-
-
-	private static long getBackupFileSize()
+		int failures;
+		try (MailDelivery delivery = new MailDelivery(emailConfig, mailRetryPolicy))
+		{
+			failures = delivery.sendAll(
+				Objects.requireNonNull(emailConfig.getReceivers()),
+				receiver -> Objects.requireNonNullElse(receiver.getMailSubject(), mailSubject),
+				content,
+				receiver -> generateAttachments(
+					backupSucceeded && receiver.isSendAttachment(),
+					receiver.isSendErrorStackTrace()
+				)
+			);
+		}
+		if (failures > 0)
+		{
+			log.error("Failed to send report mail to [{}] receivers.", failures);
+			return;
+		}
+		log.info("Succeed to send report mail.");
+	}
+
+	private long getBackupFileSize()
 	{
 		File f = new File(config.getOutputFilePath());
-		return f.length();
+		// 流式压缩且不保留原始备份文件时，使用写入压缩文件的数据量。
+		return f.isFile() ? f.length() : rawBackupSize;
 	}
 
-	private static long getCompressedFileSize()
+	private long getCompressedFileSize()
 	{
 		File f = new File(config.getCompressedFilePath());
 		return f.length();
 	}
 
-	private static long getDiskAvailableSpace()
+	private long getDiskAvailableSpace()
 	{
-		return new File(config.getOutputFilePath()).getUsableSpace();
+		// 备份文件可能不存在，使用其所在目录。
+		File dir = new File(config.getOutputFilePath()).getAbsoluteFile().getParentFile();
+		return dir == null ? 0 : dir.getUsableSpace();
 	}
 
-	private static Map<String, String> generateAttachments(
+	private Map<String, String> generateAttachments(
 		final boolean backupFile,
 		final boolean errTrack
 	)
@@ -496,7 +1919,10 @@ public class Main
 		Map<String, String> result = new HashMap<>();
 		if (backupFile && new File(config.getCompressedFilePath()).canRead())
 		{
-			result.put(config.getCompressedFilePath(), "backup.7z");
+			result.put(
+				config.getCompressedFilePath(),
+				"backup." + getCompressionConfig().getCodec().getExtension()
+			);
 		}
 		if (errTrack && new File(config.getExceptionTraceFilePath()).canRead())
 		{
@@ -518,24 +1944,6 @@ public class Main
 			String configJson = new String(Files.readAllBytes(file.toPath()));
 			RootConfig config =
 				new Gson().fromJson(configJson, RootConfig.class);
-			String timeStr =
-				new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
-			config.setOutputFilePath(convertKey(
-				config.getOutputFilePath(),
-				timeStr
-			));
-			config.setOutputFilePath(convertKey(
-				config.getOutputFilePath(),
-				timeStr
-			));
-			config.setCompressedFilePath(convertKey(
-				config.getCompressedFilePath(),
-				timeStr
-			));
-			config.setExceptionTraceFilePath(convertKey(
-				config.getExceptionTraceFilePath(),
-				timeStr
-			));
 			return config;
 		}
 		catch (Exception e)
@@ -546,11 +1954,48 @@ public class Main
 	}
 
 	/**
-	 * 读取配置文件时，替换时间占位符为可读日期。
+	 * 复制配置，并将其中路径的时间占位符替换为当前时间。守护进程模式下每次执行都使用新的时间戳。
+	 */
+	private static RootConfig withTimestamp(RootConfig raw)
+	{
+		RootConfig config = copyConfig(raw);
+		String timeStr =
+			new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date());
+		config.setOutputFilePath(convertKey(
+			config.getOutputFilePath(),
+			timeStr
+		));
+		config.setCompressedFilePath(convertKey(
+			config.getCompressedFilePath(),
+			timeStr
+		));
+		config.setExceptionTraceFilePath(convertKey(
+			config.getExceptionTraceFilePath(),
+			timeStr
+		));
+		if (config.getProjects() != null)
+		{
+			for (ProjectConfig project : config.getProjects())
+			{
+				project.setOutputFilePath(convertKey(project.getOutputFilePath(), timeStr));
+				project.setCompressedFilePath(convertKey(project.getCompressedFilePath(), timeStr));
+			}
+		}
+		return config;
+	}
+
+	private static RootConfig copyConfig(RootConfig config)
+	{
+		Gson gson = new Gson();
+		return gson.fromJson(gson.toJson(config), RootConfig.class);
+	}
+
+	/**
+	 * 替换时间占位符为可读日期。
 	 */
 	private static String convertKey(String raw, String timeStr)
 	{
-		if (!raw.contains("%s"))
+		if (raw == null || !raw.contains("%s"))
 		{
 			return raw;
 		}
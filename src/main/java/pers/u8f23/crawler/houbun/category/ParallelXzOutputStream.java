@@ -0,0 +1,261 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 多线程分块xz压缩输出流。
+ * 写入的数据按固定大小切分为块，各块在线程池中被压缩为独立的xz流，再按原顺序写入下游输出流。
+ * xz格式允许多个流直接拼接，因此结果仍是标准的xz文件，可由任意xz工具解压。
+ * 同时进行中的块数不超过线程数的2倍，内存占用约为{@code 2 * threads * blockSize}字节。
+ * <p>
+ * 启用边界切分时，块只会在{@link #markBoundary()}标记的位置结束，块的大小可能超过{@code blockSize}；
+ * 由于每块都是独立的xz流，已知块的压缩偏移量后即可单独解压该块。
+ *
+ * @author 8f23
+ * @create 2026/10/18-17:02
+ */
+public class ParallelXzOutputStream extends OutputStream
+{
+	private final OutputStream out;
+	private final LZMA2Options options;
+	private final int blockSize;
+	private final boolean splitAtBoundaries;
+	private final int maxInFlight;
+	private final ExecutorService executor;
+	private final Queue<PendingBlock> inFlight = new ArrayDeque<>();
+	private final List<Block> blocks = new ArrayList<>();
+	private byte[] block;
+	private int blockLength;
+	/** 已提交的块的未压缩数据总量。 */
+	private long submittedSize;
+	/** 已写入下游的压缩数据总量。 */
+	private long writtenSize;
+	private boolean closed;
+
+	/**
+	 * @param out       下游输出流，随此流一同关闭。
+	 * @param options   各块使用的压缩参数。
+	 * @param blockSize 每块的大小，以字节计。
+	 * @param threads   压缩线程数。
+	 */
+	public ParallelXzOutputStream(OutputStream out, LZMA2Options options, int blockSize, int threads)
+	{
+		this(out, options, blockSize, threads, false);
+	}
+
+	/**
+	 * @param splitAtBoundaries 是否只在{@link #markBoundary()}标记的位置切分块。
+	 */
+	public ParallelXzOutputStream(
+		OutputStream out,
+		LZMA2Options options,
+		int blockSize,
+		int threads,
+		boolean splitAtBoundaries)
+	{
+		this.out = out;
+		this.options = options;
+		this.blockSize = Math.max(1 << 16, blockSize);
+		this.splitAtBoundaries = splitAtBoundaries;
+		int parallelism = Math.max(1, threads);
+		this.maxInFlight = parallelism * 2;
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "xz-compressor");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.block = new byte[this.blockSize];
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		write(new byte[]{(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		ensureOpen();
+		if (splitAtBoundaries)
+		{
+			if (blockLength + len > block.length)
+			{
+				block = Arrays.copyOf(block, Math.max(block.length * 2, blockLength + len));
+			}
+			System.arraycopy(b, off, block, blockLength, len);
+			blockLength += len;
+			return;
+		}
+		while (len > 0)
+		{
+			int count = Math.min(len, blockSize - blockLength);
+			System.arraycopy(b, off, block, blockLength, count);
+			blockLength += count;
+			off += count;
+			len -= count;
+			if (blockLength == blockSize)
+			{
+				submitBlock();
+			}
+		}
+	}
+
+	/**
+	 * 标记当前位置可以切分块。当前块已达到块大小时，在此处结束当前块。
+	 */
+	public void markBoundary() throws IOException
+	{
+		ensureOpen();
+		if (blockLength >= blockSize)
+		{
+			submitBlock();
+		}
+	}
+
+	/**
+	 * @return 已写入的未压缩数据总量，即下一个字节在未压缩数据中的偏移量。
+	 */
+	public long getPosition()
+	{
+		return submittedSize + blockLength;
+	}
+
+	/**
+	 * @return 已写入下游的各块信息，关闭后即为全部块。
+	 */
+	public List<Block> getBlocks()
+	{
+		return Collections.unmodifiableList(blocks);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		try
+		{
+			if (blockLength > 0)
+			{
+				submitBlock();
+			}
+			while (!inFlight.isEmpty())
+			{
+				writeOldest();
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+			out.close();
+		}
+	}
+
+	private void submitBlock() throws IOException
+	{
+		byte[] data = block;
+		int length = blockLength;
+		inFlight.add(new PendingBlock(
+			executor.submit(() -> compress(data, length)),
+			submittedSize,
+			length
+		));
+		submittedSize += length;
+		block = new byte[blockSize];
+		blockLength = 0;
+		while (inFlight.size() >= maxInFlight)
+		{
+			writeOldest();
+		}
+	}
+
+	private byte[] compress(byte[] data, int length) throws IOException
+	{
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 64);
+		try (XZOutputStream xz = new XZOutputStream(compressed, options))
+		{
+			xz.write(data, 0, length);
+		}
+		return compressed.toByteArray();
+	}
+
+	private void writeOldest() throws IOException
+	{
+		PendingBlock pending = inFlight.remove();
+		byte[] compressed;
+		try
+		{
+			compressed = pending.future.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while compressing.");
+		}
+		catch (ExecutionException e)
+		{
+			Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+			{
+				throw (IOException) cause;
+			}
+			throw new IOException("Failed to compress block.", cause);
+		}
+		out.write(compressed);
+		blocks.add(new Block(pending.offset, pending.length, writtenSize, compressed.length));
+		writtenSize += compressed.length;
+	}
+
+	private void ensureOpen() throws IOException
+	{
+		if (closed)
+		{
+			throw new IOException("Stream closed.");
+		}
+	}
+
+	@AllArgsConstructor
+	private static class PendingBlock
+	{
+		private final Future<byte[]> future;
+		private final long offset;
+		private final int length;
+	}
+
+	/**
+	 * 单个压缩块的位置。
+	 */
+	@Getter
+	@AllArgsConstructor
+	public static class Block
+	{
+		/** 块在未压缩数据中的偏移量。 */
+		private final long uncompressedOffset;
+		private final long uncompressedLength;
+		/** 块在压缩文件中的偏移量。 */
+		private final long compressedOffset;
+		private final long compressedLength;
+	}
+}
@@ -0,0 +1,42 @@
+package pers.u8f23.crawler.houbun.category;
+
+import pers.u8f23.crawler.houbun.category.response.CategoryPageParsed;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 分类页面解析结果的缓存。
+ * 以请求地址为键，并记录解析时响应的验证标识（{@code ETag}或{@code Last-Modified}），
+ * 只有验证标识相同时才会复用解析结果。
+ *
+ * @author 8f23
+ * @create 2026/10/18-14:20
+ */
+public class ParsedPageCache
+{
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	public CategoryPageParsed get(String url, String validator)
+	{
+		Entry entry = entries.get(url);
+		return entry != null && entry.validator.equals(validator) ? entry.parsed : null;
+	}
+
+	public void put(String url, String validator, CategoryPageParsed parsed)
+	{
+		entries.put(url, new Entry(validator, parsed));
+	}
+
+	private static class Entry
+	{
+		private final String validator;
+		private final CategoryPageParsed parsed;
+
+		private Entry(String validator, CategoryPageParsed parsed)
+		{
+			this.validator = validator;
+			this.parsed = parsed;
+		}
+	}
+}
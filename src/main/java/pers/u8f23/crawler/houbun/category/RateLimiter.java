@@ -0,0 +1,82 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器。
+ * 所有请求线程共享同一个桶，令牌以固定速率补充，桶中最多积攒{@code burst}个令牌。
+ * 令牌不足时，请求线程按照预约的先后顺序依次等待，因此总体请求速率不会超出设定值。
+ * 速率不为正数时，不做任何限制。
+ *
+ * @author 8f23
+ * @create 2026/10/18-10:12
+ */
+public class RateLimiter
+{
+	private final int burst;
+	private double permitsPerSecond;
+	/** 当前桶中的令牌数，为负数时表示已被预约的令牌。 */
+	private double storedPermits;
+	private long lastRefillNanos;
+
+	public RateLimiter(double permitsPerSecond, int burst)
+	{
+		this.burst = Math.max(1, burst);
+		this.permitsPerSecond = permitsPerSecond;
+		this.storedPermits = this.burst;
+		this.lastRefillNanos = System.nanoTime();
+	}
+
+	public synchronized void setRate(double permitsPerSecond)
+	{
+		refill(System.nanoTime());
+		this.permitsPerSecond = permitsPerSecond;
+	}
+
+	public synchronized double getRate()
+	{
+		return permitsPerSecond;
+	}
+
+	/**
+	 * 获取一个令牌，令牌不足时阻塞当前线程直至令牌可用。
+	 */
+	public void acquire() throws InterruptedException
+	{
+		long waitNanos = reserve();
+		if (waitNanos > 0)
+		{
+			TimeUnit.NANOSECONDS.sleep(waitNanos);
+		}
+	}
+
+	/**
+	 * 预约一个令牌。
+	 *
+	 * @return 令牌可用前需要等待的时间，以纳秒计。
+	 */
+	private synchronized long reserve()
+	{
+		if (permitsPerSecond <= 0)
+		{
+			return 0;
+		}
+		refill(System.nanoTime());
+		storedPermits -= 1;
+		if (storedPermits >= 0)
+		{
+			return 0;
+		}
+		return (long) (-storedPermits / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+	}
+
+	private void refill(long now)
+	{
+		if (permitsPerSecond > 0)
+		{
+			double elapsedSeconds = (now - lastRefillNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+			storedPermits = Math.min(burst, storedPermits + elapsedSeconds * permitsPerSecond);
+		}
+		lastRefillNanos = now;
+	}
+}
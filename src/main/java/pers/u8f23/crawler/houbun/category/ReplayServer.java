@@ -0,0 +1,157 @@
+package pers.u8f23.crawler.houbun.category;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.config.ReplayConfig;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回放录制样本的本地替身服务器，只监听回环地址。
+ * 每个请求按比例注入429限流与503错误，其余请求在指定的延迟后返回录制的响应，没有样本的请求返回404。
+ * 与{@link FixtureRecorder}使用相同的键，因此两个站点的地址都可以指向此服务器。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:05
+ */
+@Slf4j
+public class ReplayServer implements Closeable
+{
+	private final FixtureStore store;
+	private final ReplayConfig config;
+	private final AtomicLong requests = new AtomicLong();
+	private final AtomicLong served = new AtomicLong();
+	private final AtomicLong missing = new AtomicLong();
+	private final AtomicLong errors = new AtomicLong();
+	private final AtomicLong throttled = new AtomicLong();
+	private HttpServer server;
+	private ExecutorService executor;
+
+	public ReplayServer(FixtureStore store, ReplayConfig config)
+	{
+		this.store = store;
+		this.config = config;
+	}
+
+	public void start() throws IOException
+	{
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getPort()), 0);
+		server.createContext("/", this::handle);
+		executor = Executors.newCachedThreadPool();
+		server.setExecutor(executor);
+		server.start();
+		log.info("Replay server started at \"{}\".", getBaseUrl());
+	}
+
+	/**
+	 * @return 形如{@code http://127.0.0.1:port}的地址。
+	 */
+	public String getBaseUrl()
+	{
+		return "http://" + server.getAddress().getAddress().getHostAddress() + ":" + server.getAddress().getPort();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException
+	{
+		try
+		{
+			requests.incrementAndGet();
+			byte[] body;
+			try (InputStream is = exchange.getRequestBody())
+			{
+				body = is.readAllBytes();
+			}
+			URI uri = exchange.getRequestURI();
+			String pathAndQuery = uri.getRawQuery() == null
+				? uri.getRawPath()
+				: uri.getRawPath() + "?" + uri.getRawQuery();
+			String key = FixtureStore.key(exchange.getRequestMethod(), pathAndQuery, body);
+
+			double dice = ThreadLocalRandom.current().nextDouble();
+			if (dice < config.getThrottleRate())
+			{
+				throttled.incrementAndGet();
+				exchange.getResponseHeaders().set("Retry-After", String.valueOf(config.getRetryAfter()));
+				exchange.sendResponseHeaders(429, -1);
+				return;
+			}
+			if (dice < config.getThrottleRate() + config.getErrorRate())
+			{
+				errors.incrementAndGet();
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			long delay = config.getLatency() + (config.getLatencyJitter() > 0
+				? ThreadLocalRandom.current().nextLong(config.getLatencyJitter() + 1)
+				: 0);
+			if (delay > 0)
+			{
+				Thread.sleep(delay);
+			}
+
+			FixtureStore.Fixture fixture = store.find(key);
+			if (fixture == null)
+			{
+				missing.incrementAndGet();
+				log.warn("No fixture for request [{}].", key);
+				exchange.sendResponseHeaders(404, -1);
+				return;
+			}
+			served.incrementAndGet();
+			if (fixture.getContentType() != null)
+			{
+				exchange.getResponseHeaders().set("Content-Type", fixture.getContentType());
+			}
+			long size = Files.size(fixture.getBody());
+			exchange.sendResponseHeaders(fixture.getCode(), size == 0 ? -1 : size);
+			if (size > 0)
+			{
+				try (OutputStream os = exchange.getResponseBody())
+				{
+					Files.copy(fixture.getBody(), os);
+				}
+			}
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		finally
+		{
+			exchange.close();
+		}
+	}
+
+	/**
+	 * @return 请求数、回放数、缺失样本数以及注入的错误与限流次数。
+	 */
+	public String summary()
+	{
+		return String.format(
+			"requests %d, served %d, missing %d, injected errors %d, throttled %d",
+			requests.get(), served.get(), missing.get(), errors.get(), throttled.get()
+		);
+	}
+
+	@Override
+	public void close()
+	{
+		if (server != null)
+		{
+			server.stop(0);
+			executor.shutdownNow();
+		}
+	}
+}
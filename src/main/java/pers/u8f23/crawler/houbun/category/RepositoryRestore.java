@@ -0,0 +1,41 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * 从去重备份仓库中还原快照。
+ * <p>
+ * 用法：{@code RepositoryRestore <仓库目录> [快照名 输出文件]}，不指定快照时列出全部快照。
+ *
+ * @author 8f23
+ * @create 2026/10/18-19:20
+ */
+public class RepositoryRestore
+{
+	public static void main(String[] args) throws IOException
+	{
+		if (args.length != 1 && args.length != 3)
+		{
+			System.err.println("Usage: RepositoryRestore <repository> [snapshot output]");
+			System.exit(2);
+			return;
+		}
+		BackupRepository repository = BackupRepository.open(args[0], 0);
+		if (args.length == 1)
+		{
+			List<String> snapshots = repository.listSnapshots();
+			snapshots.forEach(System.out::println);
+			return;
+		}
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[2]))))
+		{
+			repository.restore(args[1], out);
+		}
+		System.out.println("Snapshot " + args[1] + " restored to " + args[2]);
+	}
+}
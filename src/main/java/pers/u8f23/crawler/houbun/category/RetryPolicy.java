@@ -0,0 +1,199 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleTransformer;
+import lombok.extern.slf4j.Slf4j;
+import pers.u8f23.crawler.houbun.category.config.RetryConfig;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异步的请求重试策略。
+ * 通过{@link Single#retryWhen}实现指数退避，两次尝试之间的等待由调度器上的定时器完成。
+ * 等待本身不占用调度器线程，但以{@code blockingGet}等方式同步取结果的调用方仍会阻塞至最终结果返回。
+ * 每个接口各有一个熔断器：连续失败达到阈值后，该接口的请求直接失败，直至熔断时间结束后放行一次试探请求；
+ * 试探请求进行期间，其他请求再等待一个熔断时间。
+ * 下次等待时间超出上限，或总耗时超出上限时，放弃请求并将最后一次的错误传递给下游。
+ *
+ * @author 8f23
+ * @create 2026/10/18-21:20
+ */
+@Slf4j
+public class RetryPolicy
+{
+	private final long initialDelay;
+	private final RetryConfig config;
+	private final Scheduler scheduler;
+	private final CrawlMetrics metrics;
+	private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> retries = new ConcurrentHashMap<>();
+	private final Map<String, AtomicLong> giveUps = new ConcurrentHashMap<>();
+
+	/**
+	 * @param defaultInitialDelay 配置中未指定首次等待时间时使用的值，以毫秒计。
+	 * @param scheduler           执行等待定时器的调度器。
+	 * @param metrics             记录重试次数与等待时间。
+	 */
+	public RetryPolicy(RetryConfig config, long defaultInitialDelay, Scheduler scheduler, CrawlMetrics metrics)
+	{
+		this.config = config;
+		this.initialDelay = Math.max(1, config.getInitialDelay() > 0 ? config.getInitialDelay() : defaultInitialDelay);
+		this.scheduler = scheduler;
+		this.metrics = metrics;
+	}
+
+	/**
+	 * 为请求附加重试。上游应当是可重复订阅的，每次订阅即发起一次请求。
+	 *
+	 * @param endpoint 接口名，同名接口共享熔断器与统计。
+	 * @param onFail   每次请求失败后执行此方法。
+	 */
+	public <T> SingleTransformer<T, T> apply(String endpoint, Runnable onFail)
+	{
+		CircuitBreaker breaker = breakers.computeIfAbsent(endpoint, k -> new CircuitBreaker());
+		return upstream -> Single.defer(() -> {
+			long start = scheduler.now(TimeUnit.MILLISECONDS);
+			AtomicInteger attempts = new AtomicInteger();
+			return Single
+				.defer(() -> breaker.allowRequest()
+					? upstream
+					: Single.<T>error(new CircuitOpenException(endpoint)))
+				.doOnSuccess(value -> breaker.onSuccess())
+				.doOnError(error -> {
+					if (!(error instanceof CircuitOpenException))
+					{
+						breaker.onFailure(endpoint);
+					}
+					onFail.run();
+				})
+				.retryWhen(errors -> errors.concatMap(error -> {
+					int attempt = attempts.incrementAndGet();
+					long delay = (long) (initialDelay * Math.pow(config.getMultiplier(), attempt - 1));
+					if (error instanceof CircuitOpenException)
+					{
+						delay = breaker.openWaitMillis();
+					}
+					long elapsed = scheduler.now(TimeUnit.MILLISECONDS) - start;
+					if (delay > config.getMaxDelay()
+					    || config.getMaxElapsedTime() > 0 && elapsed + delay > config.getMaxElapsedTime())
+					{
+						counter(giveUps, endpoint).incrementAndGet();
+						log.error("Request to [{}] failed after [{}] attempts in [{}] ms.",
+							endpoint, attempt, elapsed, error);
+						return Flowable.error(error);
+					}
+					counter(retries, endpoint).incrementAndGet();
+					metrics.recordRetry(endpoint, delay);
+					log.warn("Request to [{}] failed. Retry in [{}] milliseconds, attempt [{}].",
+						endpoint, delay, attempt);
+					return Flowable.timer(delay, TimeUnit.MILLISECONDS, scheduler);
+				}));
+		});
+	}
+
+	/**
+	 * @return 各接口的重试与放弃次数。
+	 */
+	public String summary()
+	{
+		Map<String, String> items = new TreeMap<>();
+		breakers.keySet().forEach(endpoint -> items.put(endpoint, String.format(
+			"%s: retries %d, give-ups %d",
+			endpoint,
+			counter(retries, endpoint).get(),
+			counter(giveUps, endpoint).get()
+		)));
+		return String.join("; ", items.values());
+	}
+
+	public long totalRetries()
+	{
+		return retries.values().stream().mapToLong(AtomicLong::get).sum();
+	}
+
+	private static AtomicLong counter(Map<String, AtomicLong> counters, String endpoint)
+	{
+		return counters.computeIfAbsent(endpoint, k -> new AtomicLong());
+	}
+
+	/**
+	 * 熔断器。
+	 */
+	private class CircuitBreaker
+	{
+		private int consecutiveFailures;
+		private long openUntil;
+		private boolean open;
+		private boolean trialInFlight;
+
+		synchronized boolean allowRequest()
+		{
+			if (!open)
+			{
+				return true;
+			}
+			if (scheduler.now(TimeUnit.MILLISECONDS) < openUntil || trialInFlight)
+			{
+				return false;
+			}
+			// 半开状态，只放行一次试探请求。
+			trialInFlight = true;
+			return true;
+		}
+
+		synchronized void onSuccess()
+		{
+			consecutiveFailures = 0;
+			open = false;
+			trialInFlight = false;
+		}
+
+		synchronized void onFailure(String endpoint)
+		{
+			consecutiveFailures++;
+			if (config.getCircuitFailureThreshold() <= 0)
+			{
+				return;
+			}
+			if (trialInFlight || consecutiveFailures >= config.getCircuitFailureThreshold())
+			{
+				if (!open || trialInFlight)
+				{
+					log.warn("Circuit of [{}] opened for [{}] ms after [{}] consecutive failures.",
+						endpoint, config.getCircuitOpenTime(), consecutiveFailures);
+				}
+				open = true;
+				trialInFlight = false;
+				openUntil = scheduler.now(TimeUnit.MILLISECONDS) + config.getCircuitOpenTime();
+			}
+		}
+
+		/**
+		 * @return 被熔断的请求下次尝试前的等待时间。熔断期间等待至熔断结束；
+		 * 熔断已结束但试探请求尚未返回时，等待一个完整的熔断时间，避免反复空转。
+		 */
+		synchronized long openWaitMillis()
+		{
+			long remaining = openUntil - scheduler.now(TimeUnit.MILLISECONDS);
+			return remaining > 0 ? remaining : Math.max(config.getCircuitOpenTime(), 1);
+		}
+	}
+
+	/**
+	 * 熔断期间的请求失败。
+	 */
+	public static class CircuitOpenException extends RuntimeException
+	{
+		public CircuitOpenException(String endpoint)
+		{
+			super("Circuit of " + endpoint + " is open.");
+		}
+	}
+}
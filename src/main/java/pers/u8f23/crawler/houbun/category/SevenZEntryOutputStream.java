@@ -0,0 +1,80 @@
+package pers.u8f23.crawler.houbun.category;
+
+import org.apache.commons.compress.archivers.sevenz.SevenZArchiveEntry;
+import org.apache.commons.compress.archivers.sevenz.SevenZMethod;
+import org.apache.commons.compress.archivers.sevenz.SevenZMethodConfiguration;
+import org.apache.commons.compress.archivers.sevenz.SevenZOutputFile;
+import org.tukaani.xz.LZMA2Options;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Date;
+
+/**
+ * 写入7z压缩文件中单个条目的输出流，关闭时结束条目并完成压缩文件。
+ *
+ * @author 8f23
+ * @create 2026/10/18-16:33
+ */
+public class SevenZEntryOutputStream extends OutputStream
+{
+	private final SevenZOutputFile archive;
+	private boolean closed;
+
+	public SevenZEntryOutputStream(File target, String entryName) throws IOException
+	{
+		this(target, entryName, null);
+	}
+
+	/**
+	 * @param options LZMA2压缩参数，为空时使用默认的压缩方式。
+	 */
+	public SevenZEntryOutputStream(File target, String entryName, LZMA2Options options)
+		throws IOException
+	{
+		archive = new SevenZOutputFile(target);
+		if (options != null)
+		{
+			archive.setContentMethods(Collections.singletonList(
+				new SevenZMethodConfiguration(SevenZMethod.LZMA2, options)));
+		}
+		SevenZArchiveEntry entry = new SevenZArchiveEntry();
+		entry.setName(entryName);
+		Date date = new Date();
+		entry.setCreationDate(date);
+		entry.setAccessDate(date);
+		archive.putArchiveEntry(entry);
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		archive.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		archive.write(b, off, len);
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		try
+		{
+			archive.closeArchiveEntry();
+		}
+		finally
+		{
+			archive.close();
+		}
+	}
+}
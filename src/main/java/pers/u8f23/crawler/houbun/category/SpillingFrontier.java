@@ -0,0 +1,153 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 可溢出至磁盘的深度优先遍历栈。
+ * 栈顶附近的元素保存在内存中；内存中的元素数超过上限时，将栈底一半的元素作为一个段追加写入溢出文件。
+ * 溢出的段总是位于内存中所有元素之下，因此各段在文件中依次排列即构成一个栈：
+ * 内存中的元素取尽后，读回文件末尾的段并截断文件。出栈顺序与完全保存在内存中时一致。
+ *
+ * @author 8f23
+ * @create 2026/10/18-20:05
+ */
+@Slf4j
+public class SpillingFrontier implements Closeable
+{
+	private final int hotCapacity;
+	private final Path spillDirectory;
+	private final Deque<String> hot = new ArrayDeque<>();
+	/** 各溢出段的起始位置与元素数，栈顶为最近写入的段。 */
+	private final Deque<long[]> segments = new ArrayDeque<>();
+	private Path spillFile;
+	private FileChannel channel;
+	private long spilledCount;
+
+	/**
+	 * @param hotCapacity    内存中保留的元素数上限，不为正数时不溢出。
+	 * @param spillDirectory 溢出文件所在目录，为空时使用系统临时目录。
+	 */
+	public SpillingFrontier(int hotCapacity, String spillDirectory)
+	{
+		this.hotCapacity = hotCapacity;
+		this.spillDirectory = spillDirectory == null ? null : Path.of(spillDirectory);
+	}
+
+	public void push(String value)
+	{
+		hot.addLast(value);
+		if (hotCapacity > 0 && hot.size() > hotCapacity)
+		{
+			spill();
+		}
+	}
+
+	/**
+	 * @return 栈顶元素，栈为空时返回{@code null}。
+	 */
+	public String pop()
+	{
+		if (hot.isEmpty() && !segments.isEmpty())
+		{
+			unspill();
+		}
+		return hot.pollLast();
+	}
+
+	public boolean isEmpty()
+	{
+		return hot.isEmpty() && segments.isEmpty();
+	}
+
+	public long size()
+	{
+		return hot.size() + spilledCount;
+	}
+
+	private void spill()
+	{
+		int count = hot.size() / 2;
+		try
+		{
+			if (channel == null)
+			{
+				spillFile = spillDirectory == null
+					? Files.createTempFile("frontier", ".spill")
+					: Files.createTempFile(spillDirectory, "frontier", ".spill");
+				channel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				log.info("Traversal frontier exceeds [{}] entries. Spill to \"{}\".", hotCapacity, spillFile);
+			}
+			long start = channel.size();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(bytes);
+			for (int i = 0; i < count; i++)
+			{
+				byte[] encoded = hot.pollFirst().getBytes(StandardCharsets.UTF_8);
+				out.writeInt(encoded.length);
+				out.write(encoded);
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+			while (buffer.hasRemaining())
+			{
+				channel.write(buffer, start + buffer.position());
+			}
+			segments.push(new long[]{start, count});
+			spilledCount += count;
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Failed to spill traversal frontier.", e);
+		}
+	}
+
+	private void unspill()
+	{
+		long[] segment = segments.pop();
+		try
+		{
+			long end = channel.size();
+			ByteBuffer buffer = ByteBuffer.allocate((int) (end - segment[0]));
+			while (buffer.hasRemaining() && channel.read(buffer, segment[0] + buffer.position()) >= 0)
+			{
+				// continue
+			}
+			buffer.flip();
+			for (long i = 0; i < segment[1]; i++)
+			{
+				byte[] encoded = new byte[buffer.getInt()];
+				buffer.get(encoded);
+				hot.addLast(new String(encoded, StandardCharsets.UTF_8));
+			}
+			channel.truncate(segment[0]);
+			spilledCount -= segment[1];
+		}
+		catch (IOException e)
+		{
+			throw new UncheckedIOException("Failed to read spilled traversal frontier.", e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		hot.clear();
+		segments.clear();
+		spilledCount = 0;
+		if (channel != null)
+		{
+			channel.close();
+			channel = null;
+			Files.deleteIfExists(spillFile);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package pers.u8f23.crawler.houbun.category;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 同时写入两个输出流。
+ *
+ * @author 8f23
+ * @create 2026/10/18-16:28
+ */
+public class TeeOutputStream extends OutputStream
+{
+	private final OutputStream first;
+	private final OutputStream second;
+
+	public TeeOutputStream(OutputStream first, OutputStream second)
+	{
+		this.first = first;
+		this.second = second;
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		first.write(b);
+		second.write(b);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		first.write(b, off, len);
+		second.write(b, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException
+	{
+		first.flush();
+		second.flush();
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		try
+		{
+			first.close();
+		}
+		finally
+		{
+			second.close();
+		}
+	}
+}
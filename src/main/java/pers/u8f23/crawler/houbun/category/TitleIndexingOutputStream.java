@@ -0,0 +1,110 @@
+package pers.u8f23.crawler.houbun.category;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 在写入分块xz压缩流的同时建立标题索引。
+ * 每个页面结束处都标记为可切分块的位置，保证页面不会跨越块；关闭时写入索引文件。
+ *
+ * @author 8f23
+ * @create 2026/10/18-17:48
+ */
+@Slf4j
+public class TitleIndexingOutputStream extends OutputStream
+{
+	private final ParallelXzOutputStream out;
+	private final String archivePath;
+	private final List<PageEntry> entries = new ArrayList<>();
+	private final ExportPageScanner scanner = new ExportPageScanner(
+		(title, start, end) -> entries.add(new PageEntry(title, start, end - start)));
+	private boolean closed;
+
+	/**
+	 * @param archivePath 压缩文件路径，索引写入其旁。
+	 */
+	public TitleIndexingOutputStream(ParallelXzOutputStream out, String archivePath)
+	{
+		this.out = out;
+		this.archivePath = archivePath;
+	}
+
+	@Override
+	public void write(int b) throws IOException
+	{
+		write(new byte[]{(byte) b}, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException
+	{
+		int segmentStart = off;
+		int end = off + len;
+		for (int i = off; i < end; i++)
+		{
+			if (scanner.scan(b[i]))
+			{
+				// 页面结束，写出至此的数据后标记可切分的位置。
+				out.write(b, segmentStart, i + 1 - segmentStart);
+				out.markBoundary();
+				segmentStart = i + 1;
+			}
+		}
+		if (segmentStart < end)
+		{
+			out.write(b, segmentStart, end - segmentStart);
+		}
+	}
+
+	@Override
+	public void close() throws IOException
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+		out.close();
+		List<ParallelXzOutputStream.Block> blocks = out.getBlocks();
+		Map<String, BackupIndex.PageLocation> pages = new TreeMap<>();
+		int blockIndex = 0;
+		// 页面按出现顺序记录，块也按顺序排列，顺次匹配即可。
+		for (PageEntry entry : entries)
+		{
+			while (blockIndex + 1 < blocks.size()
+			       && blocks.get(blockIndex + 1).getUncompressedOffset() <= entry.start)
+			{
+				blockIndex++;
+			}
+			ParallelXzOutputStream.Block block = blocks.get(blockIndex);
+			pages.put(entry.title, new BackupIndex.PageLocation(
+				blockIndex,
+				entry.start - block.getUncompressedOffset(),
+				(int) entry.length
+			));
+		}
+		new BackupIndex(new ArrayList<>(blocks), pages).save(archivePath);
+		log.info("Title index of [{}] pages in [{}] blocks written to \"{}\".",
+			pages.size(), blocks.size(), BackupIndex.indexPathOf(archivePath));
+	}
+
+	private static class PageEntry
+	{
+		private final String title;
+		private final long start;
+		private final long length;
+
+		private PageEntry(String title, long start, long length)
+		{
+			this.title = title;
+			this.start = start;
+			this.length = length;
+		}
+	}
+}
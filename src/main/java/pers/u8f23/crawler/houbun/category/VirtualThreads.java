@@ -0,0 +1,96 @@
+package pers.u8f23.crawler.houbun.category;
+
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.plugins.RxJavaPlugins;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 虚拟线程执行模式。
+ * 启用后，RxJava的{@link Schedulers#io()}与{@link Schedulers#newThread()}、OkHttp的调度器以及并发遍历的工作线程
+ * 均由每个任务一个虚拟线程的执行器承担，阻塞式的请求代码无需修改即可廉价地提高并发数。
+ * 虚拟线程需要Java 21，通过反射获取执行器；运行环境不支持时保持使用平台线程。
+ *
+ * @author 8f23
+ * @create 2026/10/18-21:50
+ */
+@Slf4j
+public final class VirtualThreads
+{
+	private static volatile ExecutorService executor;
+
+	private VirtualThreads()
+	{
+	}
+
+	/**
+	 * 启用虚拟线程执行模式，须在发起任何请求之前调用。
+	 *
+	 * @return 是否成功启用。
+	 */
+	public static synchronized boolean enable()
+	{
+		if (executor != null)
+		{
+			return true;
+		}
+		ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+		if (virtualExecutor == null)
+		{
+			return false;
+		}
+		executor = virtualExecutor;
+		Scheduler scheduler = Schedulers.from(virtualExecutor);
+		RxJavaPlugins.setIoSchedulerHandler(ignored -> scheduler);
+		RxJavaPlugins.setNewThreadSchedulerHandler(ignored -> scheduler);
+		HttpUtils.useDispatcherExecutor(virtualExecutor);
+		log.info("Virtual thread execution mode enabled.");
+		return true;
+	}
+
+	public static boolean isEnabled()
+	{
+		return executor != null;
+	}
+
+	/**
+	 * 创建执行I/O任务的执行器。虚拟线程模式下每个任务一个虚拟线程，否则使用固定数量的平台线程。
+	 * 并发数由调用方提交的任务数控制。
+	 */
+	public static ExecutorService newTaskExecutor(int platformThreads)
+	{
+		if (isEnabled())
+		{
+			ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+			if (virtualExecutor != null)
+			{
+				return virtualExecutor;
+			}
+		}
+		return Executors.newFixedThreadPool(Math.max(1, platformThreads));
+	}
+
+	private static ExecutorService newVirtualThreadPerTaskExecutor()
+	{
+		try
+		{
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		}
+		catch (NoSuchMethodException e)
+		{
+			log.warn("Virtual threads require Java 21. Current version is [{}]. Use platform threads instead.",
+				System.getProperty("java.version"));
+			return null;
+		}
+		catch (ReflectiveOperationException e)
+		{
+			log.warn("Failed to create virtual thread executor. Use platform threads instead.", e);
+			return null;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-20:30
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdaptivePacingConfig
+{
+	/** 初始请求速率，以每秒请求数计。 */
+	private double initialRate = 1;
+	/** 请求速率下限。 */
+	private double minRate = 0.1;
+	/** 请求速率上限。 */
+	private double maxRate = 10;
+	/** 请求正常时，每秒增加的请求速率。 */
+	private double additiveIncrease = 0.2;
+	/** 被限流时，请求速率乘以的系数。 */
+	private double decreaseFactor = 0.5;
+	/** 响应时间超过此值时视作服务器繁忙，以毫秒计。不为正数时不检查。 */
+	private long latencyThreshold = 5000;
+	/** 请求间隔的随机抖动比例。 */
+	private double jitter = 0.2;
+	/** 附加到API请求的{@code maxlag}参数，以秒计。不为正数时不附加。 */
+	private int maxlag = 5;
+	/** 被限流时，同一请求的最大重试次数。 */
+	private int maxThrottleRetries = 5;
+}
@@ -0,0 +1,24 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-23:50
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryGraphConfig
+{
+	/** 【必需】分类图缓存文件路径。不会替换其中的时间戳占位符。 */
+	private String filePath;
+	/** 节点的有效期，以毫秒计。 */
+	private long ttl = 7L * 24 * 60 * 60 * 1000;
+	/** 遍历前是否比对各分类的成员数，使成员数变化的分类立即刷新。 */
+	private boolean checkChanges = true;
+}
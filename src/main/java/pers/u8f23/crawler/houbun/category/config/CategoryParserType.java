@@ -0,0 +1,19 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * 渲染后分类页面的解析方式。
+ *
+ * @author 8f23
+ * @create 2026/10/18-12:40
+ */
+public enum CategoryParserType
+{
+	/** 读取完整页面并构建Jsoup文档树。 */
+	@SerializedName ("jsoup")
+	JSOUP,
+	/** 流式扫描页面，只提取分类区域内的链接。 */
+	@SerializedName ("streaming")
+	STREAMING
+}
@@ -0,0 +1,19 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * 分类页面的数据来源。
+ *
+ * @author 8f23
+ * @create 2026/10/18-11:20
+ */
+public enum CategorySourceType
+{
+	/** 请求渲染后的分类页面，并解析其中的链接。 */
+	@SerializedName ("html")
+	HTML,
+	/** 通过{@code list=categorymembers}接口请求分类成员。 */
+	@SerializedName ("api")
+	API
+}
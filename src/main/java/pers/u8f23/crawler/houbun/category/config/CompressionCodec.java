@@ -0,0 +1,29 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.Getter;
+
+/**
+ * 备份文件的压缩格式。
+ *
+ * @author 8f23
+ * @create 2026/10/18-16:50
+ */
+public enum CompressionCodec
+{
+	/** 单线程LZMA2压缩的7z文件。 */
+	@SerializedName ("7z")
+	SEVEN_Z("7z"),
+	/** 多线程分块压缩的xz文件，各块为独立的xz流，依次拼接。 */
+	@SerializedName ("xz")
+	XZ("xz");
+
+	/** 文件扩展名，不含点。 */
+	@Getter
+	private final String extension;
+
+	CompressionCodec(String extension)
+	{
+		this.extension = extension;
+	}
+}
@@ -0,0 +1,36 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-16:52
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompressionConfig
+{
+	/** 压缩格式。 */
+	private CompressionCodec codec = CompressionCodec.SEVEN_Z;
+	/** LZMA2预设等级，0-9。 */
+	private int preset = 6;
+	/** 字典大小，以字节计。不为正数时使用预设等级的默认值。 */
+	private int dictionarySize;
+	/** 分块压缩时每块的大小，以字节计。不为正数时取字典大小的3倍。 */
+	private int blockSize;
+	/** 分块压缩的线程数。不为正数时取可用的处理器数，并受{@link #memoryLimit}限制。 */
+	private int threads;
+	/**
+	 * 分块压缩的内存预算，以字节计，用于推算默认线程数。
+	 * 每个线程约占用编码器内存与3倍块大小（2个进行中的块及其压缩结果）。
+	 * 不为正数时取最大堆内存的1/4。
+	 */
+	private long memoryLimit;
+	/** 是否在压缩文件旁生成标题索引，仅支持xz格式。启用时块只在页面之间切分。 */
+	private boolean titleIndex;
+}
@@ -0,0 +1,26 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/19-01:10
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DaemonConfig
+{
+	/** 执行计划的cron表达式，依次为分、时、日、月、星期，按本地时区解释。不为空时取代{@link #interval}。 */
+	private String cron;
+	/** 相邻两次执行开始时间的间隔，以毫秒计。 */
+	private long interval;
+	/** 启动后是否立即执行一次。 */
+	private boolean runOnStart;
+	/** 状态接口监听的本地端口。不为正数时不启用状态接口。 */
+	private int statusPort;
+}
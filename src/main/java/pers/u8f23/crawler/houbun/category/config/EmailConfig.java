@@ -24,4 +24,8 @@ public class EmailConfig
 	private String authCode;
 	private String mailSubject;
 	private List<EmailReceiverConfig> receivers;
+	/** 同时投递的收件人数，也是复用的SMTP连接数上限。 */
+	private int parallelism = 1;
+	/** 单个收件人的投递重试策略。为空时从5秒开始每次等待时间加倍，单次等待超过5分钟时放弃。 */
+	private RetryConfig retry;
 }
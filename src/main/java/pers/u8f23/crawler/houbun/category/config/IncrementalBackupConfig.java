@@ -0,0 +1,22 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-15:00
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncrementalBackupConfig
+{
+	/** 【必需】增量备份状态文件的路径，记录上次备份时各页面的修订版本号。 */
+	private String stateFilePath;
+	/** 每隔多少次备份进行一次完整备份。不为正数时，只在没有可用状态时进行完整备份。 */
+	private int fullBackupInterval;
+}
@@ -0,0 +1,22 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-22:10
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsConfig
+{
+	/** JSON格式的指标文件路径。为空时不输出。 */
+	private String jsonFilePath;
+	/** Prometheus textfile格式的指标文件路径，通常位于node_exporter的textfile目录下。为空时不输出。 */
+	private String prometheusFilePath;
+}
@@ -0,0 +1,35 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * 单个备份项目的配置。
+ * 未填写的路径由{@link RootConfig}中的同名配置在文件名后追加项目名得到，其余配置与{@link RootConfig}相同。
+ *
+ * @author 8f23
+ * @create 2026/10/19-00:20
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectConfig
+{
+	/** 【必需】项目名，用于日志、性能指标及派生的文件名，各项目间不能重复。 */
+	private String name;
+	/** 【必需】根分类。 */
+	private String rootCategory;
+	private String outputFilePath;
+	private String compressedFilePath;
+	/** 爬取日志路径。不会替换其中的时间戳占位符。 */
+	private String journalFilePath;
+	/** 增量备份状态文件的路径。不会替换其中的时间戳占位符。 */
+	private String incrementalStateFilePath;
+	/** 去重备份仓库目录。 */
+	private String repositoryDirectory;
+	/** 报告邮件的标题。 */
+	private String mailSubject;
+}
@@ -0,0 +1,34 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-23:05
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReplayConfig
+{
+	/** 【必需】录制或回放。 */
+	private ReplayMode mode;
+	/** 【必需】样本目录。 */
+	private String directory;
+	/** 回放时替身服务器监听的本地端口。为0时任选空闲端口。 */
+	private int port;
+	/** 回放时每个响应的固定延迟，以毫秒计。 */
+	private long latency;
+	/** 回放时在固定延迟之上附加的随机延迟上限，以毫秒计。 */
+	private long latencyJitter;
+	/** 回放时返回503的请求比例，取值0至1。 */
+	private double errorRate;
+	/** 回放时返回429的请求比例，取值0至1。 */
+	private double throttleRate;
+	/** 返回429时{@code Retry-After}的秒数。 */
+	private int retryAfter = 1;
+}
@@ -0,0 +1,19 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * 请求的录制与回放模式。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:05
+ */
+public enum ReplayMode
+{
+	/** 正常请求两个站点，同时将响应保存至样本目录。 */
+	@SerializedName ("record")
+	RECORD,
+	/** 由本地的替身服务器回放样本目录中的响应，不访问两个站点。 */
+	@SerializedName ("replay")
+	REPLAY
+}
@@ -0,0 +1,22 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-18:40
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepositoryConfig
+{
+	/** 【必需】仓库目录。 */
+	private String directory;
+	/** 单个包文件的大小上限，以字节计。 */
+	private long packSize;
+}
@@ -0,0 +1,30 @@
+package pers.u8f23.crawler.houbun.category.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * @author 8f23
+ * @create 2026/10/18-21:10
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryConfig
+{
+	/** 首次重试前的等待时间，以毫秒计。不为正数时使用{@link RootConfig#getRequestIntervalTime()}。 */
+	private long initialDelay;
+	/** 单次等待时间的上限，以毫秒计，下次等待时间超出此值时放弃请求。 */
+	private long maxDelay = 40 * 60 * 1000;
+	/** 每次重试后等待时间乘以的系数。 */
+	private double multiplier = 2;
+	/** 单个请求自首次尝试起的总耗时上限，以毫秒计。不为正数时不限制。 */
+	private long maxElapsedTime;
+	/** 同一接口连续失败多少次后熔断。不为正数时不熔断。 */
+	private int circuitFailureThreshold;
+	/** 熔断持续时间，以毫秒计，之后放行一次试探请求。 */
+	private long circuitOpenTime = 60 * 1000;
+}
@@ -3,6 +3,8 @@ package pers.u8f23.crawler.houbun.category.config;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.List;
+
 /**
  * @author 8f23
  * @create 2023/8/5-11:34
@@ -10,11 +12,63 @@ import lombok.Setter;
 @Getter @Setter
 public class RootConfig
 {
+	/** 本站地址。为空时使用萌娘百科。 */
+	private String homeSiteBaseUrl;
+	/** 镜像站页面导出服务的地址。为空时使用moegirl.uk。 */
+	private String mirrorSiteBackupUrl;
+	/** 请求的录制与回放配置。为空时正常请求两个站点。 */
+	private ReplayConfig replay;
+	/** 守护进程模式配置。为空时执行一次后退出。 */
+	private DaemonConfig daemon;
+	/** 根分类，未配置{@link #projects}时使用。 */
+	private String rootCategory = "Category:芳文社";
+	/** 在同一进程中并发执行的多个备份项目，共享请求客户端、限速器与页面缓存。为空时只备份{@link #rootCategory}。 */
+	private List<ProjectConfig> projects;
 	private String outputFilePath;
 	private String compressedFilePath;
 	private String exceptionTraceFilePath;
+	/** 爬取日志路径，用于中断后继续执行。为空时不记录日志。不会替换其中的时间戳占位符。 */
+	private String journalFilePath;
 	private int bufferSize;
+	/** 分块导出时每块的页面数。不为正数时，所有页面通过单次请求导出。 */
+	private int exportChunkSize;
+	/** 分块导出时同时进行的请求数。 */
+	private int exportParallelism = 1;
+	/** 是否在下载的同时压缩备份文件。 */
+	private boolean streamingCompression;
+	/** 流式压缩时是否同时保留未压缩的备份文件。 */
+	private boolean keepRawBackup = true;
+	/** 压缩配置。为空时使用默认的7z压缩。 */
+	private CompressionConfig compression;
 	private int requestIntervalTime;
+	/** 请求重试策略。为空时从{@link #requestIntervalTime}开始每次等待时间加倍，单次等待超过40分钟时放弃。 */
+	private RetryConfig retry;
+	/** 并发请求数。不大于1时使用单线程遍历。 */
+	private int concurrentRequests;
+	/** 是否在虚拟线程上执行请求任务，需要Java 21，不支持时使用平台线程。 */
+	private boolean virtualThreads;
+	/** 单线程遍历时，待访问栈在内存中保留的路径数上限，超出部分溢出至磁盘。不为正数时不溢出。 */
+	private int frontierMemoryLimit;
+	/** 待访问栈的溢出文件目录。为空时使用系统临时目录。 */
+	private String frontierSpillDirectory;
+	/** 本站请求速率上限，以每秒请求数计。为正数时取代请求成功后的强制等待。 */
+	private double requestsPerSecond;
+	/** 本站请求的自适应节奏控制。不为空时取代{@link #requestsPerSecond}。 */
+	private AdaptivePacingConfig adaptivePacing;
+	/** 分类页面的数据来源。 */
+	private CategorySourceType categorySource = CategorySourceType.HTML;
+	/** 渲染后分类页面的解析方式，仅在数据来源为{@link CategorySourceType#HTML}时生效。 */
+	private CategoryParserType categoryParser = CategoryParserType.JSOUP;
+	/** 分类图缓存配置。为空时每次都完整遍历分类。 */
+	private CategoryGraphConfig categoryGraph;
+	/** 本站请求的磁盘缓存配置。为空时不启用缓存。 */
+	private HttpCacheConfig httpCache;
+	/** 增量备份配置。为空时每次都进行完整备份。 */
+	private IncrementalBackupConfig incrementalBackup;
+	/** 去重备份仓库配置。为空时不写入仓库。 */
+	private RepositoryConfig repository;
+	/** 性能指标的输出配置。为空时只在报告邮件中附上摘要。 */
+	private MetricsConfig metrics;
 	private EmailConfig emailConfig;
 	private boolean printExceptionsToLog;
 }
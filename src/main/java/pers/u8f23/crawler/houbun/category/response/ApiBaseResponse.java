@@ -1,8 +1,11 @@
 package pers.u8f23.crawler.houbun.category.response;
 
+import com.google.gson.annotations.SerializedName;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Map;
+
 /**
  * @author 8f23
  * @create 2023/8/4-23:00
@@ -12,4 +15,7 @@ import lombok.Setter;
 public class ApiBaseResponse<T>
 {
 	private T query;
+	/** 分页请求的续传参数，结果已完整时为{@code null}。 */
+	@SerializedName ("continue")
+	private Map<String, String> continueParams;
 }
@@ -0,0 +1,31 @@
+package pers.u8f23.crawler.houbun.category.response;
+
+import com.google.gson.annotations.SerializedName;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * {@code list=categorymembers}接口的查询结果。
+ *
+ * @author 8f23
+ * @create 2026/10/18-11:28
+ */
+@Getter
+@Setter
+public class CategoryMembersQuery
+{
+	@SerializedName ("categorymembers")
+	private List<Member> categoryMembers;
+
+	@Getter
+	@Setter
+	public static class Member
+	{
+		@SerializedName ("pageid")
+		private long pageId;
+		private int ns;
+		private String title;
+	}
+}
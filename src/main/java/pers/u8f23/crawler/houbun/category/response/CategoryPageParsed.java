@@ -39,6 +39,45 @@ public class CategoryPageParsed
 
 	private CategoryPageParsed(){}
 
+	public static CategoryPageParsed of(
+		Set<String> nextPagePaths,
+		Set<String> subCategories,
+		Set<String> subPages)
+	{
+		CategoryPageParsed res = new CategoryPageParsed();
+		res.nextPagePaths = nextPagePaths;
+		res.subCategories = subCategories;
+		res.subPages = subPages;
+		return res;
+	}
+
+	/**
+	 * 流式解析分类页面，结果与{@link #parse}一致，但不会将页面完整读入内存。
+	 */
+	public static CategoryPageParsed parseStreaming(Response<ResponseBody> rawResponse)
+	{
+		if (rawResponse == null)
+		{
+			throw new RuntimeException();
+		}
+		if (rawResponse.code() == 404)
+		{
+			return EMPTY_RESULT;
+		}
+		try (ResponseBody body = rawResponse.body())
+		{
+			if (body == null)
+			{
+				throw new RuntimeException();
+			}
+			return StreamingCategoryPageParser.parse(body.charStream());
+		}
+		catch (IOException e)
+		{
+			throw new RuntimeException(e);
+		}
+	}
+
 	public static CategoryPageParsed parse(Response<ResponseBody> rawResponse)
 	{
 		if (rawResponse == null)
@@ -0,0 +1,194 @@
+package pers.u8f23.crawler.houbun.category.response;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code prop=categories}接口的查询结果，只保留各作品的作者名。
+ * 由{@link Adapter}单次流式读取响应：作者分类在读取时即被筛选，
+ * 不构建{@link Query}、{@link Page}以及各页面的分类列表。结果与{@link Query#flat}一致。
+ *
+ * @author 8f23
+ * @create 2026/10/18-23:30
+ */
+@Getter
+@JsonAdapter (CreatorsResponse.Adapter.class)
+public class CreatorsResponse
+{
+	/** key = 请求时的作品名; value = 作者名集合。 */
+	private Map<String, Set<String>> creators = Collections.emptyMap();
+	/** 分页请求的续传参数，结果已完整时为{@code null}。 */
+	private Map<String, String> continueParams;
+
+	public static class Adapter extends TypeAdapter<CreatorsResponse>
+	{
+		@Override
+		public CreatorsResponse read(JsonReader in) throws IOException
+		{
+			if (in.peek() == JsonToken.NULL)
+			{
+				in.nextNull();
+				return null;
+			}
+			CreatorsResponse result = new CreatorsResponse();
+			result.creators = new LinkedHashMap<>();
+			Map<String, String> normalized = null;
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName())
+				{
+				case "query":
+					normalized = readQuery(in, result.creators); break;
+				case "continue":
+					result.continueParams = readStringMap(in); break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			// 页面名是规范化后的名称，换回请求时的名称。
+			if (normalized != null)
+			{
+				normalized.forEach((to, from) -> {
+					Set<String> creators = result.creators.remove(to);
+					if (creators != null)
+					{
+						result.creators.computeIfAbsent(from, k -> new LinkedHashSet<>()).addAll(creators);
+					}
+				});
+			}
+			return result;
+		}
+
+		/**
+		 * @return 规范化前后的页面名。key = 规范化后的页面名; value = 请求时的页面名。
+		 */
+		private static Map<String, String> readQuery(JsonReader in, Map<String, Set<String>> result)
+			throws IOException
+		{
+			Map<String, String> normalized = null;
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName())
+				{
+				case "normalized":
+					normalized = new Query.FieldNormalizedAdapter().read(in); break;
+				case "pages":
+					readPages(in, result); break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			return normalized;
+		}
+
+		/**
+		 * 读取以页面ID为键的对象，或{@code formatversion=2}时的数组。
+		 */
+		private static void readPages(JsonReader in, Map<String, Set<String>> result) throws IOException
+		{
+			if (in.peek() == JsonToken.BEGIN_ARRAY)
+			{
+				in.beginArray();
+				while (in.hasNext())
+				{
+					readPage(in, result);
+				}
+				in.endArray();
+				return;
+			}
+			in.beginObject();
+			while (in.hasNext())
+			{
+				in.nextName();
+				readPage(in, result);
+			}
+			in.endObject();
+		}
+
+		private static void readPage(JsonReader in, Map<String, Set<String>> result) throws IOException
+		{
+			String title = null;
+			Set<String> creators = null;
+			in.beginObject();
+			while (in.hasNext())
+			{
+				switch (in.nextName())
+				{
+				case "title":
+					title = in.nextString(); break;
+				case "categories":
+					creators = readCreators(in); break;
+				default:
+					in.skipValue();
+				}
+			}
+			in.endObject();
+			// 没有分类的页面不计入结果，与Query.flat一致。
+			if (title != null && !title.isEmpty() && creators != null)
+			{
+				result.computeIfAbsent(title, k -> new LinkedHashSet<>()).addAll(creators);
+			}
+		}
+
+		private static Set<String> readCreators(JsonReader in) throws IOException
+		{
+			Set<String> creators = new LinkedHashSet<>();
+			in.beginArray();
+			while (in.hasNext())
+			{
+				in.beginObject();
+				while (in.hasNext())
+				{
+					if (in.nextName().equals("title"))
+					{
+						String creator = Query.creatorOf(in.nextString());
+						if (creator != null)
+						{
+							creators.add(creator);
+						}
+					}
+					else
+					{
+						in.skipValue();
+					}
+				}
+				in.endObject();
+			}
+			in.endArray();
+			return creators;
+		}
+
+		private static Map<String, String> readStringMap(JsonReader in) throws IOException
+		{
+			Map<String, String> map = new LinkedHashMap<>();
+			in.beginObject();
+			while (in.hasNext())
+			{
+				map.put(in.nextName(), in.nextString());
+			}
+			in.endObject();
+			return map;
+		}
+
+		@Override
+		public void write(JsonWriter out, CreatorsResponse value)
+		{
+			// nop
+		}
+	}
+}
@@ -24,8 +24,25 @@ public class Page
 	private long pageId;
 	private String title;
 	private String missing;
+	@SerializedName ("lastrevid")
+	private long lastRevId;
 	@JsonAdapter (FieldCategoriesAdapter.class)
 	private List<String> categories;
+	@SerializedName ("categoryinfo")
+	private CategoryInfo categoryInfo;
+
+	/**
+	 * {@code prop=categoryinfo}给出的分类成员数。
+	 */
+	@Setter
+	@Getter
+	public static class CategoryInfo
+	{
+		private int size;
+		private int pages;
+		private int files;
+		private int subcats;
+	}
 
 	public static class FieldCategoriesAdapter extends TypeAdapter<List<String>>
 	{
@@ -76,9 +76,10 @@ public class Query
 			.filter(page -> !page.getTitle().isEmpty())
 			.forEach(page -> {
 
+				// 批量请求时，只有部分标题经过了规范化。
 				String trueTitle = query.normalized == null
 					? page.getTitle()
-					: query.normalized.get(page.getTitle());
+					: query.normalized.getOrDefault(page.getTitle(), page.getTitle());
 				if (trueTitle == null)
 				{
 					return;
@@ -90,19 +91,83 @@ public class Query
 				}
 				Set<String> categories = rawCategories
 					.stream()
-					.map(rawCate -> {
-						if (rawCate.startsWith("Category:") && rawCate.endsWith("作品"))
-						{
-							return rawCate
-								.replace("Category:", "")
-								.replace("作品", "");
-						} return null;
-					})
+					.map(Query::creatorOf)
 					.filter(Objects::nonNull)
-					.filter(c -> !EXCEPT_CATEGORY_NAMES.contains(c))
 					.collect(Collectors.toSet());
 				resultMap.put(trueTitle, categories);
 			});
 		return resultMap;
 	}
+
+	/**
+	 * 从形如{@code Category:xxx作品}的分类名中提取作者名。
+	 *
+	 * @return 作者名，不是作者分类或属于排除的分类时返回{@code null}。
+	 */
+	public static String creatorOf(String rawCategory)
+	{
+		if (!rawCategory.startsWith("Category:") || !rawCategory.endsWith("作品"))
+		{
+			return null;
+		}
+		String creator = rawCategory
+			.replace("Category:", "")
+			.replace("作品", "");
+		return EXCEPT_CATEGORY_NAMES.contains(creator) ? null : creator;
+	}
+
+	/**
+	 * 提取{@code prop=categoryinfo}查询结果中各分类的成员数签名，成员数变化即签名变化。
+	 *
+	 * @return key = 请求时的分类名; value = 形如{@code size/pages/subcats/files}的签名，分类没有成员时为空字符串。
+	 */
+	public static Map<String, String> categorySignatures(Query query)
+	{
+		Map<String, String> resultMap = new HashMap<>();
+		if (query.pages == null)
+		{
+			return resultMap;
+		}
+		for (Page page : query.pages.values())
+		{
+			if (page.getTitle() == null || page.getTitle().isEmpty())
+			{
+				continue;
+			}
+			String trueTitle = query.normalized == null
+				? page.getTitle()
+				: query.normalized.getOrDefault(page.getTitle(), page.getTitle());
+			Page.CategoryInfo info = page.getCategoryInfo();
+			resultMap.put(trueTitle, info == null
+				? ""
+				: info.getSize() + "/" + info.getPages() + "/" + info.getSubcats() + "/" + info.getFiles());
+		}
+		return resultMap;
+	}
+
+	/**
+	 * 提取{@code prop=info}查询结果中各页面的最新修订版本号。
+	 *
+	 * @return key = 请求时的页面名; value = 最新修订版本号，页面不存在时为0。
+	 */
+	public static Map<String, Long> revisions(Query query)
+	{
+		Map<String, Long> resultMap = new HashMap<>();
+		if (query.pages == null)
+		{
+			return resultMap;
+		}
+		for (Page page : query.pages.values())
+		{
+			if (page.getTitle() == null || page.getTitle().isEmpty())
+			{
+				continue;
+			}
+			String trueTitle = query.normalized == null
+				? page.getTitle()
+				: query.normalized.getOrDefault(page.getTitle(), page.getTitle());
+			resultMap.put(trueTitle, page.getMissing() != null ? 0L : page.getLastRevId());
+		}
+		return resultMap;
+	}
 }
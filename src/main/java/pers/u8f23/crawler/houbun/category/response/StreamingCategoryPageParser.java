@@ -0,0 +1,576 @@
+package pers.u8f23.crawler.houbun.category.response;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 流式的分类页面解析器。
+ * 逐字符扫描页面内容，只提取{@code #mw-subcategories}与{@code #mw-pages}两个区域内的链接，
+ * 其余内容直接跳过，不构建文档树，也不保留完整的页面文本。
+ * 解析结果与{@link CategoryPageParsed#parse}保持一致。
+ * 此类的实例不是线程安全的，每个页面应当使用新的实例。
+ *
+ * @author 8f23
+ * @create 2026/10/18-12:05
+ */
+final class StreamingCategoryPageParser
+{
+	private static final int BUFFER_SIZE = 8192;
+	private static final String NEXT_PAGE_TEXT = "下一页";
+	private static final String SUB_CATEGORIES_ID = "mw-subcategories";
+	private static final String PAGES_ID = "mw-pages";
+
+	private static final int SECTION_NONE = 0;
+	private static final int SECTION_SUB_CATEGORIES = 1;
+	private static final int SECTION_PAGES = 2;
+
+	private final Reader reader;
+	private final char[] buffer = new char[BUFFER_SIZE];
+	private int position;
+	private int limit;
+	private int pushback = -1;
+
+	private final StringBuilder tagName = new StringBuilder(16);
+	private final StringBuilder attrName = new StringBuilder(16);
+	private final StringBuilder attrValue = new StringBuilder(256);
+	private final StringBuilder anchorText = new StringBuilder(32);
+
+	/** 当前所在区域。 */
+	private int section = SECTION_NONE;
+	/** 当前区域根元素的标签名，用于匹配区域的结束标签。 */
+	private String sectionTag;
+	private int sectionDepth;
+	private boolean subCategoriesFound;
+	private boolean pagesFound;
+
+	/** 当前标签的{@code id}属性所匹配的区域。 */
+	private int tagSection;
+	private String tagHref;
+	private boolean inAnchor;
+	private String anchorHref;
+
+	private Set<String> nextPagePaths;
+	private Set<String> subCategories;
+	private Set<String> subPages;
+
+	private StreamingCategoryPageParser(Reader reader)
+	{
+		this.reader = reader;
+	}
+
+	static CategoryPageParsed parse(Reader reader) throws IOException
+	{
+		StreamingCategoryPageParser parser = new StreamingCategoryPageParser(reader);
+		parser.run();
+		return CategoryPageParsed.of(
+			parser.nextPagePaths == null ? Collections.emptySet() : parser.nextPagePaths,
+			parser.subCategories == null ? Collections.emptySet() : parser.subCategories,
+			parser.subPages == null ? Collections.emptySet() : parser.subPages
+		);
+	}
+
+	private void run() throws IOException
+	{
+		int c;
+		while ((c = read()) >= 0)
+		{
+			if (c == '<')
+			{
+				readMarkup();
+			}
+			else if (inAnchor)
+			{
+				anchorText.append((char) c);
+			}
+		}
+	}
+
+	private void readMarkup() throws IOException
+	{
+		int c = read();
+		if (c < 0)
+		{
+			return;
+		}
+		if (c == '!')
+		{
+			skipDeclarationOrComment();
+		}
+		else if (c == '?')
+		{
+			skipUntil('>');
+		}
+		else if (c == '/')
+		{
+			readEndTag();
+		}
+		else if (isLetter(c))
+		{
+			readStartTag(c);
+		}
+		else
+		{
+			// 不构成标签的'<'视作普通文本。
+			if (inAnchor)
+			{
+				anchorText.append('<');
+			}
+			unread(c);
+		}
+	}
+
+	private void skipDeclarationOrComment() throws IOException
+	{
+		int c = read();
+		if (c == '-')
+		{
+			c = read();
+			if (c == '-')
+			{
+				int dashes = 0;
+				while ((c = read()) >= 0)
+				{
+					if (c == '>' && dashes >= 2)
+					{
+						return;
+					}
+					dashes = c == '-' ? dashes + 1 : 0;
+				}
+				return;
+			}
+		}
+		if (c != '>')
+		{
+			skipUntil('>');
+		}
+	}
+
+	private void readEndTag() throws IOException
+	{
+		tagName.setLength(0);
+		int c;
+		while ((c = read()) >= 0 && c != '>' && !isWhitespace(c) && c != '/')
+		{
+			tagName.append(toLower(c));
+		}
+		if (c >= 0 && c != '>')
+		{
+			skipUntil('>');
+		}
+		handleEndTag();
+	}
+
+	private void readStartTag(int first) throws IOException
+	{
+		tagName.setLength(0);
+		tagName.append(toLower(first));
+		int c;
+		while ((c = read()) >= 0 && c != '>' && !isWhitespace(c) && c != '/')
+		{
+			tagName.append(toLower(c));
+		}
+		tagSection = SECTION_NONE;
+		tagHref = null;
+		boolean selfClosing = false;
+		while (c >= 0 && c != '>')
+		{
+			if (isWhitespace(c))
+			{
+				c = read();
+				continue;
+			}
+			if (c == '/')
+			{
+				selfClosing = true;
+				c = read();
+				continue;
+			}
+			selfClosing = false;
+			c = readAttribute(c);
+		}
+		handleStartTag(selfClosing);
+		if (!selfClosing && (isTag("script") || isTag("style")))
+		{
+			skipRawText(tagName.toString());
+		}
+	}
+
+	/**
+	 * 读取单个属性，只保留{@code id}与{@code href}的值。
+	 *
+	 * @return 属性之后的第一个未处理字符。
+	 */
+	private int readAttribute(int first) throws IOException
+	{
+		attrName.setLength(0);
+		attrName.append(toLower(first));
+		int c;
+		while ((c = read()) >= 0 && c != '=' && c != '>' && c != '/' && !isWhitespace(c))
+		{
+			attrName.append(toLower(c));
+		}
+		while (isWhitespace(c))
+		{
+			c = read();
+		}
+		if (c != '=')
+		{
+			return c;
+		}
+		c = read();
+		while (isWhitespace(c))
+		{
+			c = read();
+		}
+		boolean isId = "id".contentEquals(attrName);
+		boolean isHref = section != SECTION_NONE && "href".contentEquals(attrName);
+		boolean keep = isId || isHref;
+		attrValue.setLength(0);
+		if (c == '"' || c == '\'')
+		{
+			int quote = c;
+			while ((c = read()) >= 0 && c != quote)
+			{
+				if (keep)
+				{
+					attrValue.append((char) c);
+				}
+			}
+			c = read();
+		}
+		else
+		{
+			while (c >= 0 && c != '>' && !isWhitespace(c))
+			{
+				if (keep)
+				{
+					attrValue.append((char) c);
+				}
+				c = read();
+			}
+		}
+		if (isId)
+		{
+			if (SUB_CATEGORIES_ID.contentEquals(attrValue))
+			{
+				tagSection = SECTION_SUB_CATEGORIES;
+			}
+			else if (PAGES_ID.contentEquals(attrValue))
+			{
+				tagSection = SECTION_PAGES;
+			}
+		}
+		else if (isHref)
+		{
+			tagHref = decodeEntities(attrValue);
+		}
+		return c;
+	}
+
+	private void skipRawText(String name) throws IOException
+	{
+		int c;
+		while ((c = read()) >= 0)
+		{
+			if (c != '<')
+			{
+				continue;
+			}
+			c = read();
+			if (c != '/')
+			{
+				unread(c);
+				continue;
+			}
+			int i = 0;
+			while (i < name.length())
+			{
+				c = read();
+				if (c < 0 || toLower(c) != name.charAt(i))
+				{
+					break;
+				}
+				i++;
+			}
+			if (i == name.length())
+			{
+				skipUntil('>');
+				return;
+			}
+			unread(c);
+		}
+	}
+
+	private void handleStartTag(boolean selfClosing)
+	{
+		if (section == SECTION_NONE)
+		{
+			if (tagSection == SECTION_SUB_CATEGORIES && !subCategoriesFound)
+			{
+				subCategoriesFound = true;
+				subCategories = new LinkedHashSet<>();
+			}
+			else if (tagSection == SECTION_PAGES && !pagesFound)
+			{
+				pagesFound = true;
+				subPages = new LinkedHashSet<>();
+			}
+			else
+			{
+				return;
+			}
+			if (!selfClosing)
+			{
+				section = tagSection;
+				sectionTag = tagName.toString();
+				sectionDepth = 1;
+			}
+			return;
+		}
+		if (!selfClosing && sectionTag.contentEquals(tagName))
+		{
+			sectionDepth++;
+		}
+		if (isTag("a"))
+		{
+			inAnchor = true;
+			anchorHref = tagHref == null ? "" : tagHref;
+			anchorText.setLength(0);
+		}
+	}
+
+	private void handleEndTag()
+	{
+		if (section == SECTION_NONE)
+		{
+			return;
+		}
+		if (inAnchor && isTag("a"))
+		{
+			inAnchor = false;
+			emitAnchor();
+		}
+		if (sectionTag.contentEquals(tagName) && --sectionDepth == 0)
+		{
+			section = SECTION_NONE;
+			inAnchor = false;
+		}
+	}
+
+	private void emitAnchor()
+	{
+		String link = anchorHref;
+		if (link.isEmpty())
+		{
+			return;
+		}
+		if (isNextPageText())
+		{
+			if (nextPagePaths == null)
+			{
+				nextPagePaths = new LinkedHashSet<>();
+			}
+			nextPagePaths.add(link);
+			return;
+		}
+		// URLDecoder只会改变'%'与'+'，其余情况无需解码。
+		if (link.indexOf('%') >= 0 || link.indexOf('+') >= 0)
+		{
+			try
+			{
+				link = URLDecoder.decode(link, StandardCharsets.UTF_8);
+			}
+			catch (Exception ignored)
+			{
+			}
+		}
+		// remove char '/'
+		(section == SECTION_SUB_CATEGORIES ? subCategories : subPages).add(link.substring(1));
+	}
+
+	/**
+	 * 判断链接文本在实体解码与空白归并后是否为{@link #NEXT_PAGE_TEXT}。
+	 */
+	private boolean isNextPageText()
+	{
+		// 过长的文本不可能匹配，无需解码。
+		if (anchorText.length() > 64)
+		{
+			return false;
+		}
+		String decoded = decodeEntities(anchorText);
+		StringBuilder normalized = new StringBuilder(decoded.length());
+		boolean pendingSpace = false;
+		for (int i = 0; i < decoded.length(); i++)
+		{
+			char ch = decoded.charAt(i);
+			if (isWhitespace(ch))
+			{
+				pendingSpace = normalized.length() > 0;
+				continue;
+			}
+			if (pendingSpace)
+			{
+				normalized.append(' ');
+				pendingSpace = false;
+			}
+			normalized.append(ch);
+		}
+		return NEXT_PAGE_TEXT.contentEquals(normalized);
+	}
+
+	private boolean isTag(String name)
+	{
+		return name.contentEquals(tagName);
+	}
+
+	private void skipUntil(char target) throws IOException
+	{
+		int c;
+		while ((c = read()) >= 0 && c != target)
+		{
+			// skip
+		}
+	}
+
+	private int read() throws IOException
+	{
+		if (pushback >= 0)
+		{
+			int c = pushback;
+			pushback = -1;
+			return c;
+		}
+		if (position >= limit)
+		{
+			limit = reader.read(buffer, 0, buffer.length);
+			position = 0;
+			if (limit <= 0)
+			{
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++];
+	}
+
+	private void unread(int c)
+	{
+		if (c >= 0)
+		{
+			pushback = c;
+		}
+	}
+
+	private static boolean isLetter(int c)
+	{
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private static boolean isWhitespace(int c)
+	{
+		return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+	}
+
+	private static char toLower(int c)
+	{
+		return (c >= 'A' && c <= 'Z') ? (char) (c + ('a' - 'A')) : (char) c;
+	}
+
+	/**
+	 * 解码常见的HTML字符实体。无法识别的实体保持原样。
+	 */
+	static String decodeEntities(CharSequence raw)
+	{
+		int amp = -1;
+		for (int i = 0; i < raw.length(); i++)
+		{
+			if (raw.charAt(i) == '&')
+			{
+				amp = i;
+				break;
+			}
+		}
+		if (amp < 0)
+		{
+			return raw.toString();
+		}
+		StringBuilder sb = new StringBuilder(raw.length());
+		sb.append(raw, 0, amp);
+		int i = amp;
+		while (i < raw.length())
+		{
+			char ch = raw.charAt(i);
+			if (ch != '&')
+			{
+				sb.append(ch);
+				i++;
+				continue;
+			}
+			int semicolon = -1;
+			for (int j = i + 1; j < raw.length() && j - i <= 10; j++)
+			{
+				if (raw.charAt(j) == ';')
+				{
+					semicolon = j;
+					break;
+				}
+			}
+			int decoded = semicolon < 0 ? -1 : decodeEntity(raw, i + 1, semicolon);
+			if (decoded < 0)
+			{
+				sb.append(ch);
+				i++;
+				continue;
+			}
+			sb.appendCodePoint(decoded);
+			i = semicolon + 1;
+		}
+		return sb.toString();
+	}
+
+	private static int decodeEntity(CharSequence raw, int start, int end)
+	{
+		if (start >= end)
+		{
+			return -1;
+		}
+		if (raw.charAt(start) == '#')
+		{
+			try
+			{
+				boolean hex = end - start > 1
+				              && (raw.charAt(start + 1) == 'x' || raw.charAt(start + 1) == 'X');
+				String digits = raw.subSequence(start + (hex ? 2 : 1), end).toString();
+				int codePoint = Integer.parseInt(digits, hex ? 16 : 10);
+				return Character.isValidCodePoint(codePoint) ? codePoint : -1;
+			}
+			catch (NumberFormatException e)
+			{
+				return -1;
+			}
+		}
+		switch (raw.subSequence(start, end).toString())
+		{
+		case "amp":
+			return '&';
+		case "lt":
+			return '<';
+		case "gt":
+			return '>';
+		case "quot":
+			return '"';
+		case "apos":
+			return '\'';
+		case "nbsp":
+			return ' ';
+		default:
+			return -1;
+		}
+	}
+}